@@ -1,14 +1,166 @@
 import SearchPatterns.BoyerMoore;
+import SearchPatterns.DnaSearch;
+import SearchPatterns.Engines;
 import SearchPatterns.FSM;
 import SearchPatterns.KMP;
+import SearchPatterns.MatchListener;
 import SearchPatterns.RabinKarp;
+import SearchPatterns.Regex;
+import SearchPatterns.RepeatedSubstrings;
+import SearchPatterns.Searcher;
+import SearchPatterns.SuffixAutomaton;
+import SearchPatterns.TableFile;
+import SearchPatterns.TwoWay;
+import SearchPatterns.WildcardFSM;
+import Utilities.Batch;
+import Utilities.Coordinator;
+import Utilities.Decompression;
+import Utilities.Fasta;
+import Utilities.Follow;
+import Utilities.LineIndex;
+import Utilities.Options;
+import Utilities.SearchStats;
+import Utilities.StreamSearch;
 import Utilities.Toolbox;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 public class Main {
 
     public static void main(String[] args) throws IOException, NumberFormatException {
+        // Options avant les arguments (-n : ligne et colonne, -C N : lignes de contexte).
+        Options options = new Options();
+        try {
+            args = options.parse(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: java Main [-n] [-C <lignes>] [-f] [-k <checkpoint>] <motif> <algo> (<fichier_texte>)");
+            System.err.println("       java Main -b <fichier_motifs> <fichier_texte>");
+            System.err.println("       java Main -l <fichier_tables> (<fichier_texte>)");
+            System.err.println("       java Main -p <processus> <motif> <algo> <fichier_texte>...");
+            System.err.println("       java Main -r <occurences> <longueur|0> <fichier_texte>");
+            System.err.println("       java Main -d <motif> (<fichier_fasta>)");
+            System.exit(1);
+        }
+
+        // Option -b : tous les motifs du fichier (une ligne "<algo> <motif>" par motif) dans le meme texte,
+        // charge une seule fois. Les motifs sont cherches en parallele, les resultats affiches par motif.
+        if (options.getBatch() != null) {
+            if (args.length != 1) {
+                System.err.println("usage: java Main -b <fichier_motifs> <fichier_texte>");
+                System.exit(1);
+            }
+            Batch batch = new Batch();
+            try {
+                batch.load(options.getBatch());
+                batch.print(args[0]);
+            }
+            catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+            if (SearchStats.ENABLED) {
+                SearchStats.printAll();
+            }
+            return;
+        }
+
+        // Option -l : tables chargees depuis un fichier (sauve avec -s), sans les calculer.
+        // Sans texte, les tables sont affichees comme ci-dessous.
+        if (options.getLoad() != null) {
+            if (args.length > 1) {
+                System.err.println("usage: java Main -l <fichier_tables> (<fichier_texte>)");
+                System.exit(1);
+            }
+            Searcher searcher = TableFile.load(options.getLoad());
+            if (args.length == 0) {
+                TableFile.printState(searcher);
+            }
+            else {
+                Toolbox.printOutput(searcher.searchText(Toolbox.load(args[0])));
+            }
+            if (SearchStats.ENABLED) {
+                SearchStats.printAll();
+            }
+            return;
+        }
+
+        // Option -p N : recherche par N processus (autres JVM), chaque fichier est decoupe en parties.
+        // Les resultats sont affiches comme ci-dessous, precedes du nom du fichier s'il y en a plusieurs.
+        if (options.getProcesses() > 0) {
+            if (args.length < 3) {
+                System.err.println("usage: java Main -p <processus> <motif> <algo> <fichier_texte>...");
+                System.exit(1);
+            }
+            Coordinator coordinator = new Coordinator(Integer.parseInt(args[1]), args[0], options.getProcesses());
+            try {
+                coordinator.print(Arrays.copyOfRange(args, 2, args.length));
+            }
+            catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+            return;
+        }
+
+        // Option -r K : sous-chaines (inconnues) presentes au moins K fois dans le texte.
+        // Affiche le nombre de sous-chaines, puis "position occurences" pour chacune (premiere occurence).
+        // Avec une longueur de 0, la plus longue sous-chaine est cherchee et sa longueur affichee en premier.
+        if (options.getRepeats() > 0) {
+            if (args.length != 2) {
+                System.err.println("usage: java Main -r <occurences> <longueur|0> <fichier_texte>");
+                System.exit(1);
+            }
+            int length = Integer.parseInt(args[0]);
+            RepeatedSubstrings repeated = new RepeatedSubstrings(Toolbox.load(args[1]));
+            if (length == 0) {
+                int[] longest = repeated.longest(options.getRepeats());
+                length = longest == null ? 0 : longest[1];
+                System.out.println(length);
+            }
+            ArrayList<RepeatedSubstrings.Repeat> repeats = repeated.find(length, options.getRepeats());
+            System.out.println(repeats.size());
+            for (RepeatedSubstrings.Repeat r : repeats) {
+                System.out.println(r);
+            }
+            return;
+        }
+
+        // Option -d : motif ADN (A, C, G, T) dans les sequences d'un fichier FASTA, compactees (2 bits par base).
+        // Affiche le nom de chaque sequence, puis les resultats comme ci-dessous (positions dans la sequence).
+        // Sans fichier, le motif compacte (ou la table de l'automate s'il est long) est affiche.
+        if (options.isDna()) {
+            if (args.length < 1 || args.length > 2) {
+                System.err.println("usage: java Main -d <motif> (<fichier_fasta>)");
+                System.exit(1);
+            }
+            try {
+                if (args.length == 1) {
+                    new DnaSearch(args[0]).printState();
+                }
+                else {
+                    Fasta.print(args[0], args[1]);
+                }
+            }
+            catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+            if (SearchStats.ENABLED) {
+                SearchStats.printAll();
+            }
+            return;
+        }
+
         // Ne pas modifier cette partie
         String fileName = null;
         String motif = null;
@@ -26,6 +178,73 @@ public class Main {
                 System.exit(1);
         }
 
+        // Option -s : sauve les tables du motif, la suite ne change pas.
+        if (options.getSave() != null) {
+            try {
+                TableFile.save(Engines.create(algo, motif), options.getSave());
+            }
+            catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        // Fichier "-" : lecture de l'entree standard, les positions sont affichees au fur et a mesure
+        // (suivies du nombre d'occurences a la fin).
+        // Avec -n, chaque occurence est affichee sous la forme ligne:colonne.
+        if ("-".equals(fileName)) {
+            if (options.isLines()) {
+                Toolbox.printStreamLines(Engines.create(algo, motif), System.in);
+            }
+            else {
+                Toolbox.printStream(Engines.create(algo, motif), System.in);
+            }
+            if (SearchStats.ENABLED) {
+                SearchStats.printAll();
+            }
+            return;
+        }
+
+        // Option -f ou -k : suivi du fichier (comme tail -f), une position par ligne des qu'elle est trouvee.
+        // Seuls les octets ajoutes sont lus, l'etat de la recherche est sauve dans le checkpoint.
+        if (fileName != null && options.isFollow()) {
+            Follow follow = new Follow(Engines.create(algo, motif), fileName, options.getCheckpoint(), algo + " " + motif);
+            try {
+                follow.run(Follow.INTERVAL, new MatchListener() {
+                    @Override
+                    public void match(long position) {
+                        System.out.println(position);
+                        System.out.flush();
+                    }
+                });
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+        }
+
+        // Option -n ou -C : affichage comme grep (ligne:colonnes:texte, avec les lignes de contexte),
+        // les lignes sont indexees pendant la lecture du fichier.
+        if (fileName != null && options.isLines()) {
+            LineIndex index = new LineIndex();
+            StringBuffer text = Toolbox.read(fileName, index);
+            Toolbox.printLines(Engines.create(algo, motif).searchText(text), text, index, options.getContext());
+            if (SearchStats.ENABLED) {
+                SearchStats.printAll();
+            }
+            return;
+        }
+
+        // Fichier compresse (gzip) : decompression sur un autre thread pendant la recherche,
+        // le texte decompresse n'est jamais charge en entier.
+        if (fileName != null && Decompression.isCompressed(fileName)) {
+            Toolbox.printOutput(StreamSearch.searchAll(Engines.create(algo, motif), Decompression.open(fileName)));
+            if (SearchStats.ENABLED) {
+                SearchStats.printAll();
+            }
+            return;
+        }
+
         // Rien d'autre ne doit etre affiche que ce qui est indique ci-dessous
         switch (algo) {
             case 1: //Rabin-Karp
@@ -77,10 +296,58 @@ public class Main {
                     Toolbox.printOutput(bm.search(motif, fileName));
                 }
                 break;
+            case 5: //Automate fini avec jokers (?, [a-z], *)
+                WildcardFSM wfsm = new WildcardFSM(motif);
+                if (fileName == null) {
+                    // Affiche le tableau (derniere colonne : autres caracteres).
+                    wfsm.printState();
+                } else {
+                    // Afficher le nombre d'occurences du motif
+                    // suivi de la liste des positions de sa 1ere lettre dans le texte
+                    Toolbox.printOutput(wfsm.search(motif, fileName));
+                }
+                break;
+            case 6: //Expression reguliere (automate construit pendant la recherche)
+                Regex regex = new Regex(motif);
+                if (fileName == null) {
+                    // Afficher le nombre d'etats, de classes de caracteres et la chaine recherchee en premier
+                    regex.printState();
+                } else {
+                    // Afficher le nombre d'occurences du motif
+                    // suivi de la liste des positions de sa 1ere lettre dans le texte
+                    Toolbox.printOutput(regex.search(motif, fileName));
+                }
+                break;
+            case 7: //Two-Way
+                TwoWay tw = new TwoWay(motif);
+                if (fileName == null) {
+                    // Afficher la position critique et la periode
+                    tw.printState();
+                } else {
+                    // Afficher le nombre d'occurences du motif
+                    // suivi de la liste des positions de sa 1ere lettre dans le texte
+                    Toolbox.printOutput(tw.search(motif, fileName));
+                }
+                break;
+            case 8: //Automate des suffixes (construit sur le texte, toutes les sous-chaines)
+                if (fileName == null) {
+                    // Afficher le nombre de caracteres, d'etats et de transitions de l'automate du motif
+                    new SuffixAutomaton(motif).printState();
+                } else {
+                    // Afficher le nombre d'occurences du motif
+                    // suivi de la liste des positions de sa 1ere lettre dans le texte
+                    Toolbox.printOutput(new SuffixAutomaton(Toolbox.load(fileName)).search(motif));
+                }
+                break;
             default:
                 System.err.println("Algorithm not implemented");
                 System.exit(2);
         }
+
+        // Compteurs des recherches (sur la sortie d'erreur), avec -Dsearchpatterns.stats=true
+        if (SearchStats.ENABLED) {
+            SearchStats.printAll();
+        }
     }
 }
 
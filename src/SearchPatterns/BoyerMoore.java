@@ -1,7 +1,11 @@
 package SearchPatterns;
 
+import Utilities.SearchStats;
 import Utilities.Toolbox;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -47,18 +51,19 @@ import java.util.*;
  * @version 0.1
  * @date 26.04.2015
  */
-public class BoyerMoore {
+public class BoyerMoore implements Searcher {
 
-    private String pattern;
-    private HashMap<Character, Integer> charTable;
-    private int[] suffixTable;
+    /**
+     * Counters (only when enabled).
+     */
+    private static final SearchStats STATS = SearchStats.ENABLED ? SearchStats.get("BoyerMoore") : null;
 
     /**
-     * Default constructor.
+     * The two arrays never change after the constructor, so an instance can be shared by threads.
      */
-    public BoyerMoore() {
-        this(null);
-    }
+    private final String pattern;
+    private final HashMap<Character, Integer> charTable;
+    private final int[] suffixTable;
 
     /**
      * Constructor with a pattern.
@@ -68,40 +73,83 @@ public class BoyerMoore {
     public BoyerMoore(String pattern) {
         this.pattern = pattern;
         this.charTable = new HashMap<Character, Integer>();
-        this.suffixTable = new int[pattern.length()];
 
         /**
          * Generate the two arrays.
          */
-        this.generateSuffixTable();
+        this.suffixTable = this.generateSuffixTable();
         this.generateCharTable();
     }
 
     /**
-     * GETTERS AND SETTERS
+     * Constructor with the tables saved in a file (see TableFile).
+     *
+     * @param pattern   The pattern.
+     * @param tables    The tables, written by writeTables.
+     * @throws IOException If the arrays are not the ones of the pattern.
      */
-    public String getPattern() {
-        return pattern;
+    BoyerMoore(String pattern, ByteBuffer tables) throws IOException {
+        this.pattern = pattern;
+        this.charTable = new HashMap<Character, Integer>();
+        int m = pattern.length();
+
+        /**
+         * The characters of the first array, then their gaps (from the last character of the pattern).
+         */
+        String chars = TableFile.readChars(tables);
+        int[] gaps = TableFile.readInts(tables);
+        TableFile.check(chars.length() == gaps.length, "length of the first array");
+        for (int i = 0; i < chars.length(); i++) {
+            TableFile.check(gaps[i] >= 0 && gaps[i] < m, "gap of the first array");
+            this.charTable.put(chars.charAt(i), gaps[i]);
+        }
+        for (int i = 0; i < m; i++) {
+            TableFile.check(this.charTable.containsKey(pattern.charAt(i)), "character of the first array");
+        }
+
+        /**
+         * The gaps of the second array shift the pattern by at least one character, and at most its length.
+         */
+        this.suffixTable = TableFile.readInts(tables);
+        TableFile.check(this.suffixTable.length == m, "length of the second array");
+        for (int gap : this.suffixTable) {
+            TableFile.check(gap >= 1 && gap <= m, "gap of the second array");
+        }
     }
 
-    public void setPattern(String pattern) {
-        this.pattern = pattern;
-        generateCharTable();
-        generateSuffixTable();
+    /**
+     * Write the two arrays, to load them with the constructor.
+     *
+     * @param out   The file.
+     * @throws IOException If the file can not be written.
+     */
+    void writeTables(DataOutputStream out) throws IOException {
+        StringBuilder chars = new StringBuilder();
+        int[] gaps = new int[charTable.size()];
+        for (Map.Entry<Character, Integer> entry : charTable.entrySet()) {
+            gaps[chars.length()] = entry.getValue();
+            chars.append(entry.getKey());
+        }
+        TableFile.writeChars(out, chars);
+        TableFile.writeInts(out, gaps);
+        TableFile.writeInts(out, suffixTable);
     }
 
-    public HashMap<Character, Integer> getcharTable() {
-        return charTable;
+    /**
+     * GETTERS
+     */
+    public String getPattern() {
+        return pattern;
     }
 
-    public void setcharTable(HashMap<Character, Integer> charTable) {
-        this.charTable = charTable;
+    public Map<Character, Integer> getcharTable() {
+        return Collections.unmodifiableMap(charTable);
     }
 
     /**
      * Generate the first array following the pattern (as you can read in the description above)
      */
-    public void generateCharTable() {
+    private void generateCharTable() {
 
         int lastCharPos = pattern.length() - 1;
 
@@ -116,133 +164,89 @@ public class BoyerMoore {
 
     /**
      * Generate the second array following the pattern (as you can read in the description above)
+     *
+     * The value at the index i - 1 is the gap when the suffix of length i has been found
+     * (the last value is the gap after a complete occurrence).
+     * @return The second array.
      */
-    public void generateSuffixTable() {
+    private int[] generateSuffixTable() {
+        int m = pattern.length();
+        int[] suffixTable = new int[m];
+
         /**
-         * We start at 1 to not begin the last character at pattern.length, the position of the last character is
-         * pattern.length - 1
+         * suffixes[i] is the length of the longest part of the pattern ending at i which is also a suffix
+         * of the pattern.
+         * It is computed in one pass by reusing the values of the part already compared (between g and f).
          */
-        int i = 1;
-
-        String currentSuffix;
-        char notChar;
-        int shift = 0;
+        int[] suffixes = new int[m];
+        suffixes[m - 1] = m;
+        int g = m - 1;
+        int f = 0;
+        for (int i = m - 2; i >= 0; i--) {
+            if (i > g && suffixes[i + m - 1 - f] < i - g) {
+                suffixes[i] = suffixes[i + m - 1 - f];
+            } else {
+                if (i < g)
+                    g = i;
+                f = i;
+                while (g >= 0 && pattern.charAt(g) == pattern.charAt(g + m - 1 - f)) {
+                    g--;
+                }
+                suffixes[i] = f - g;
+            }
+        }
 
         /**
-         * We have to manage the case where we are on the first character, the character at index 0 (p.length - i)
+         * shifts[j] is the gap when the character at the position j doesn't match.
+         * By default, the whole pattern is shifted.
          */
-        while (i <= pattern.length()) {
-
-            /**
-             * We take the suffix that we are managing, depending on i, we begin with one character for the suffix,
-             * and add one character at each i loop
-             */
-            currentSuffix = pattern.substring(pattern.length() - i, pattern.length());
-
-            /**
-             * If the p.length and i have the same values, the program is going to try to look on the notChar at
-             * the position -1 of the pattern, which is going to end with an exception outOfBounds
-             */
-            if (pattern.length() - i == 0)
-
-            /**
-             * in this case, we give a value null to the character to make sure that the program won't find
-             * the same character in the pattern
-             */
-                notChar = 0;
-            else
-                notChar = pattern.charAt(pattern.length() - i - 1);
-
-            /**
-             * We shift through the pattern
-             */
-            for (int j = 1; j < pattern.length(); j++) {
-
-                /**
-                 * If we are going to leave the String (by going into negatives index), we add a shift to avoid
-                 * the exceptions out of bounds.
-                 */
-                if (pattern.length() - i - j - 1 < 0) {
-                    currentSuffix = currentSuffix.substring(1, currentSuffix.length());
-                    shift++;
-
-                    /**
-                     * For the case where the suffix has a null length, we keep the last notChar
-                     */
-                    if (currentSuffix.length() > 0) {
-                        notChar = currentSuffix.charAt(0);
-                        /**
-                         * If we are processing the last character, we set the not char at 0.
-                         * Else, if the charAt(0) is the same as the last character, it won't match.
-                         */
-                        if (currentSuffix.length() == 1) {
-                            notChar = 0;
-                        }
-                    }
-                }
+        int[] shifts = new int[m];
+        for (int i = 0; i < m; i++) {
+            shifts[i] = m;
+        }
 
-                /**
-                 * The big if is here. We test if the currentSuffix equals the part of the pattern that we are testing
-                 * and it's followed by testing if i and the p.length are equal, in this case, it means that the suffix
-                 * is as big as the pattern, there is a else if below which deal with this.
-                 * The last part test if the "not this character" is actually not the same character as the one in the
-                 * pattern.
-                 */
-                String tmpSuffix = pattern.substring(pattern.length() - i - j + shift, pattern.length() - j);
-                if ((tmpSuffix.equals(currentSuffix))
-                        && (pattern.length() - i != 0)//) {
-                        && (pattern.charAt(pattern.length() - i - j - 1 + shift) != notChar)) {
-
-                    /**
-                     * j is the gap to shift in the text recognition to shift when the pattern detects an error.
-                     */
-                    suffixTable[i - 1] = j;
-
-                    /**
-                     * At the moment when we found the good gap, we stop the loop, to not detect another incorrect gap
-                     */
-                    break;
-                }
-                /**
-                 * This is the part where we deal with the case where the suffix is the pattern, and there isn't a
-                 * "notChar" for the suffix.
-                 * We are looking at the last character of the pattern.
-                 */
-                else if ((pattern.length() == i) &&
-                    (tmpSuffix.equals(currentSuffix))) {
-                    suffixTable[i - 1] = j;
-                    break;
-                }
-                    /**
-                     * In this case, we didn't find any recognition between the pattern and any suffix, so we put the
-                     * p.length as the gap in the array.
-                     */
-                else if (j == pattern.length() - 1) {
-                    suffixTable[i - 1] = pattern.length();
+        /**
+         * Case where only a prefix of the pattern can be found at the end of the suffix.
+         */
+        int j = 0;
+        for (int i = m - 1; i >= 0; i--) {
+            if (suffixes[i] == i + 1) {
+                for (; j < m - 1 - i; j++) {
+                    if (shifts[j] == m)
+                        shifts[j] = m - 1 - i;
                 }
             }
+        }
 
-            /**
-             * Reinitialize the shift for the next suffix
-             */
-            shift = 0;
+        /**
+         * Case where the suffix is found again in the pattern, preceded by another character (NOT(x)).
+         */
+        for (int i = 0; i <= m - 2; i++) {
+            shifts[m - 1 - suffixes[i]] = m - 1 - i;
+        }
 
-            /**
-             * Going in the next suffix.
-             */
-            i++;
+        /**
+         * The suffix of length i is found when the character at m - 1 - i doesn't match.
+         * For the complete pattern, we use the gap of the first character (the period of the pattern).
+         */
+        for (int i = 1; i < m; i++) {
+            suffixTable[i - 1] = shifts[m - 1 - i];
         }
+        suffixTable[m - 1] = shifts[0];
+        return suffixTable;
     }
 
     /**
-     * Update the pattern, load the two arrays and calls the search method with all the algorithm inside.
+     * Search a pattern into the file (another pattern is searched with a new instance, this one is not changed).
      * @param pattern The pattern chose by the user.
      * @param filename File to load.
      * @return The list who contains the number of occurrence of the pattern in the file and the location of these
      * occurrences.
      */
     public ArrayList<Integer> search (String pattern, String filename) {
-        setPattern(pattern);
+        if (!pattern.equals(this.pattern)) {
+            return new BoyerMoore(pattern).search(filename);
+        }
         return search(filename);
     }
 
@@ -253,12 +257,29 @@ public class BoyerMoore {
      * occurrences.
      */
     public ArrayList<Integer> search (String filename) {
+        /**
+         * Load the file
+         */
+        return searchText(Toolbox.load(filename));
+    }
+
+    /**
+     * Analyze a text already loaded with the pattern to find the occurrences.
+     * @param text The text to analyze.
+     * @return The list who contains the location of the occurrences.
+     */
+    @Override
+    public ArrayList<Integer> searchText (CharSequence text) {
         ArrayList<Integer> results = new ArrayList<Integer>();
 
         /**
-         * Load the file
+         * Counters, only used when enabled.
          */
-        StringBuffer text = Toolbox.read(filename);
+        long start = SearchStats.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0;
+        long charTableShifts = 0;
+        long suffixTableShifts = 0;
+        long[] histogram = SearchStats.ENABLED ? new long[32] : null;
 
         int pos_text;
         int pos_motif;
@@ -284,33 +305,75 @@ public class BoyerMoore {
             /**
              * We continue the loop while there is a match between the pattern and the text
              */
-            while (pos_motif > 0 && text.charAt(pos_text-len_m+pos_motif) == pattern.charAt(pos_motif)) {
+            while (pos_motif >= 0 && text.charAt(pos_text-len_m+pos_motif) == pattern.charAt(pos_motif)) {
                 pos_motif--; // go back from one position
             }
+            if (SearchStats.ENABLED)
+                comparisons += len_m - pos_motif - (pos_motif < 0 ? 1 : 0);
 
             /**
              * We found an occurrence of the pattern in the text
              */
-            if (pos_motif == 0) {
+            if (pos_motif < 0) {
                 results.add(pos_text-len_m);
+                pos_text = pos_text + suffixTable[len_m-1];
+                if (SearchStats.ENABLED) {
+                    suffixTableShifts++;
+                    histogram[SearchStats.bucket(suffixTable[len_m-1])]++;
+                }
+                continue;
             }
 
             /**
-             * We haven't found the pattern so we have to decide the gap to do
+             * We haven't found the pattern so we have to decide the gap to do.
+             * The character which doesn't match is aligned with its last position in the pattern
+             * (if this position is before the current one).
              */
-            if (pos_motif == len_m-1) {
-                if (charTable.containsKey(text.charAt(pos_text-1)))
-                    pos_text = pos_text + charTable.get(text.charAt(pos_text-1));
+            char notChar = text.charAt(pos_text-len_m+pos_motif);
+            int gapChar;
+            if (charTable.containsKey(notChar))
+                gapChar = pos_motif - (len_m - 1 - charTable.get(notChar));
+            else
+                gapChar = pos_motif + 1;
+
+            /**
+             * If a suffix has been found, the gap of the second array can be bigger.
+             */
+            int gapSuffix = 1;
+            if (pos_motif < len_m-1)
+                gapSuffix = suffixTable[len_m-2-pos_motif];
+
+            int gap = Math.max(1, Math.max(gapChar, gapSuffix));
+            pos_text = pos_text + gap;
+
+            /**
+             * Count which table gave the gap.
+             */
+            if (SearchStats.ENABLED) {
+                if (gapChar >= gapSuffix)
+                    charTableShifts++;
                 else
-                    pos_text = pos_text + len_m;
-            } else {
-                pos_text = pos_text + suffixTable[len_m-2-pos_motif];
+                    suffixTableShifts++;
+                histogram[SearchStats.bucket(gap)]++;
             }
-
+        }
+        if (SearchStats.ENABLED) {
+            STATS.addSearch(len_t, System.nanoTime() - start, comparisons, 0, 0);
+            STATS.addShifts(histogram, charTableShifts, suffixTableShifts);
         }
         return results;
     }
 
+    /**
+     * Create a cursor, to search the pattern into a text given by parts.
+     * The end of each part (pattern length - 1 characters) is kept, so an occurrence on two parts is found.
+     * @return A new cursor, at the beginning of the text.
+     */
+    @Override
+    public Cursor cursor () {
+        return new OverlapCursor(this, pattern.length());
+    }
+
     /**
      * Prints the characters table.
      * (only the value, not the characters.)
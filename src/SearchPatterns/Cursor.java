@@ -0,0 +1,57 @@
+package SearchPatterns;
+
+/**
+ * State of a search into a text given by parts.
+ *
+ * The parts are given in order with feed(). The positions of appearances are
+ * sent to the listener as soon as they are found, and are positions in the
+ * whole text (not in the current part).
+ *
+ * The state of a cursor can be saved as a string and restored later in a new cursor
+ * of the same pattern (to continue a search after a restart).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public interface Cursor {
+
+    /**
+     * Search the pattern into the next part of the text.
+     *
+     * The part can be reused by the caller after the call.
+     *
+     * @param chunk     The next part of the text.
+     * @param listener  The listener of the positions of appearances.
+     */
+    void feed(CharSequence chunk, MatchListener listener);
+
+    /**
+     * Signal the end of the text.
+     *
+     * @param listener  The listener of the positions of appearances.
+     */
+    void end(MatchListener listener);
+
+    /**
+     * Get the number of characters already given.
+     *
+     * @return The position of the next character in the whole text.
+     */
+    long position();
+
+    /**
+     * Save the state of the search (position and characters or state kept).
+     *
+     * @return The state, to give to restore().
+     */
+    String save();
+
+    /**
+     * Restore a state saved by a cursor of the same pattern.
+     *
+     * @param state The state returned by save().
+     * @throws IllegalArgumentException If the state is not valid for this pattern.
+     */
+    void restore(String state);
+}
@@ -0,0 +1,241 @@
+package SearchPatterns;
+
+import Utilities.SearchStats;
+
+import java.util.ArrayList;
+
+/**
+ * Class to search a DNA pattern (A, C, G, T) into a packed sequence (see PackedSequence), without unpacking it.
+ *
+ * A pattern of at most 32 bases is packed into a long, like a window of the sequence. As in RabinKarp,
+ * the window is compared with the pattern at each position, but the packed window is the whole
+ * substring (a hash without collision) : no verification is needed. For the 32 positions of a word,
+ * the window is read from this word and the next one (two loads for 32 positions).
+ *
+ * A longer pattern is searched with the automaton of FSM, over the 4 bases only : the table has
+ * 4 columns (one per base), and the bases are read 2 bits by 2 bits from the words.
+ *
+ * An occurrence never contains an ambiguous base (N...) : the parts of the sequence between the runs of
+ * ambiguous bases are searched one after the other. Overlapping occurrences are all found.
+ *
+ * Never changed after the constructor : an instance can be shared by threads.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class DnaSearch {
+
+    public static final int PACKED = 32;    // Longest pattern searched packed into a long (else, with the automaton).
+
+    // Counters (only when enabled).
+    private static final SearchStats STATS = SearchStats.ENABLED ? SearchStats.get("DnaSearch") : null;
+
+    private final String pattern;
+    private final long packed;      // Bases of the pattern (2 bits each, the first one in the lowest bits).
+    private final long mask;        // Bits of a window of the length of the pattern.
+    private final int[] table;      // Automaton (state * 4 + base -> state), null if the pattern is packed.
+
+    /**
+     * Constructor with a pattern.
+     *
+     * @param pattern The pattern to load (A, C, G, T, upper or lower case).
+     * @throws IllegalArgumentException If the pattern is empty or contains another character.
+     */
+    public DnaSearch(String pattern) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("The pattern must contain at least one base.");
+        }
+        int m = pattern.length();
+        int[] codes = new int[m];
+        for (int i = 0; i < m; i++) {
+            codes[i] = PackedSequence.code(pattern.charAt(i));
+            if (codes[i] == -1) {
+                throw new IllegalArgumentException("Invalid base in the pattern: " + pattern.charAt(i));
+            }
+        }
+        this.pattern = pattern.toUpperCase();
+
+        if (m <= PACKED) {
+            long packed = 0;
+            for (int i = 0; i < m; i++) {
+                packed |= (long) codes[i] << (i << 1);
+            }
+            this.packed = packed;
+            this.mask = m == PACKED ? -1L : (1L << (m << 1)) - 1;
+            this.table = null;
+        }
+        else {
+            this.packed = 0;
+            this.mask = 0;
+            this.table = transitions(codes);
+        }
+    }
+
+    /**
+     * Compute the table of the automaton (as in FSM, with the state of the longest border).
+     *
+     * @param codes The bases of the pattern.
+     * @return      The table : the next state for each state and each base.
+     */
+    private static int[] transitions(int[] codes) {
+        int m = codes.length;
+        int[] table = new int[(m + 1) << 2];
+        int border = 0;     // State of the longest border of the pattern read.
+        for (int state = 0; state <= m; state++) {
+            for (int base = 0; base < 4; base++) {
+                table[(state << 2) | base] = table[(border << 2) | base];
+            }
+            if (state < m) {
+                table[(state << 2) | codes[state]] = state + 1;
+                if (state > 0) {
+                    border = table[(border << 2) | codes[state]];
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return The pattern (upper case).
+     */
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    /**
+     * Search the pattern into a sequence.
+     *
+     * @param sequence  The sequence to look into.
+     * @return          An array containing the positions of appearances.
+     */
+    public ArrayList<Integer> search(PackedSequence sequence) {
+        long start = SearchStats.ENABLED ? System.nanoTime() : 0;
+        ArrayList<Integer> output = new ArrayList<Integer>();
+        // Parts of the sequence between the runs of ambiguous bases.
+        int from = 0;
+        for (int run = 0; run < sequence.getRuns(); run++) {
+            this.search(sequence, from, sequence.getRunStart(run), output);
+            from = sequence.getRunEnd(run);
+        }
+        this.search(sequence, from, sequence.length(), output);
+        if (SearchStats.ENABLED) {
+            STATS.addSearch(sequence.length(), System.nanoTime() - start, 0, 0, 0);
+        }
+        return output;
+    }
+
+    /**
+     * Search the pattern into a text (packed before the search).
+     *
+     * The case of the bases is ignored, and the other characters are ambiguous bases.
+     *
+     * @param text  The text to look into.
+     * @return      An array containing the positions of appearances.
+     */
+    public ArrayList<Integer> searchText(CharSequence text) {
+        return this.search(new PackedSequence(text));
+    }
+
+    /**
+     * Search the pattern into a part of a sequence without ambiguous bases.
+     *
+     * @param sequence  The sequence.
+     * @param from      The first base of the part.
+     * @param to        The base after the part.
+     * @param output    The positions of appearances.
+     */
+    private void search(PackedSequence sequence, int from, int to, ArrayList<Integer> output) {
+        if (to - from < this.pattern.length()) {
+            return;
+        }
+        if (this.table == null) {
+            this.searchPacked(sequence.words(), from, to - this.pattern.length(), output);
+        }
+        else {
+            this.searchAutomaton(sequence.words(), from, to, output);
+        }
+    }
+
+    /**
+     * Compare the packed pattern with the window of each position.
+     *
+     * @param words     The words of the sequence.
+     * @param first     The first position.
+     * @param last      The last position.
+     * @param output    The positions of appearances.
+     */
+    private void searchPacked(long[] words, int first, int last, ArrayList<Integer> output) {
+        long packed = this.packed;
+        long mask = this.mask;
+        for (int w = first >>> 5; w <= last >>> 5; w++) {
+            long word = words[w];
+            long next = w + 1 < words.length ? words[w + 1] : 0;
+            int i = Math.max(first, w << 5) & 31;
+            int end = Math.min(last, (w << 5) + 31) & 31;
+            for (; i <= end; i++) {
+                // Bases of the window : the end of this word, followed by the beginning of the next one.
+                long window = i == 0 ? word : (word >>> (i << 1)) | (next << (64 - (i << 1)));
+                if ((window & mask) == packed) {
+                    output.add((w << 5) + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Follow the automaton on the bases of a part.
+     *
+     * @param words     The words of the sequence.
+     * @param from      The first base of the part.
+     * @param to        The base after the part.
+     * @param output    The positions of appearances.
+     */
+    private void searchAutomaton(long[] words, int from, int to, ArrayList<Integer> output) {
+        int[] table = this.table;
+        int m = this.pattern.length();
+        int state = 0;
+        long word = words[from >>> 5] >>> ((from & 31) << 1);
+        for (int i = from; i < to; i++) {
+            if ((i & 31) == 0) {
+                word = words[i >>> 5];
+            }
+            state = table[(state << 2) | (int) (word & 3)];
+            word >>>= 2;
+            if (state == m) {
+                output.add(i - m + 1);
+            }
+        }
+    }
+
+    /**
+     * Print the pattern packed into bits (2 per base, the first base on the right),
+     * or the table of the automaton (one line per state, one column per base A, C, G, T).
+     */
+    public void printState() {
+        if (this.table == null) {
+            String bits = Long.toBinaryString(this.packed);
+            while (bits.length() < this.pattern.length() * 2) {
+                bits = "0" + bits;
+            }
+            System.out.println(bits);
+            return;
+        }
+        String s = "";
+        for (int state = 0; state <= this.pattern.length(); state++) {
+            s += " ";
+            for (int base = 0; base < 4; base++) {
+                s += this.table[(state << 2) | base] + " ";
+            }
+            s += "\n";
+        }
+        System.out.println(s);
+    }
+
+    public static void main(String[] args) {
+        DnaSearch dna = new DnaSearch("ACGTA");
+        // Afficher le nombre d'occurences du motif et leurs positions (le N ne correspond a aucune base)
+        ArrayList<Integer> output = dna.searchText("ACGTACGTANACGTACGTA");
+        System.out.println(output.size() + " " + output);
+    }
+}
@@ -0,0 +1,47 @@
+package SearchPatterns;
+
+/**
+ * Class to create a search pattern from its number (the same numbers as in Main).
+ *
+ *      1 : Rabin-Karp
+ *      2 : Finite-State Machine
+ *      3 : Knuth-Morris-Pratt
+ *      4 : Boyer-Moore
+ *      5 : Finite-State Machine with wildcards
+ *      6 : Regular expression
+ *      7 : Two-Way
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class Engines {
+
+    /**
+     * Create a search pattern.
+     *
+     * @param algo      The number of the algorithm.
+     * @param pattern   The pattern to load.
+     * @return          The search pattern.
+     */
+    public static Searcher create(int algo, String pattern) {
+        switch (algo) {
+            case 1:
+                return new RabinKarp(pattern);
+            case 2:
+                return new FSM(pattern);
+            case 3:
+                return new KMP(pattern);
+            case 4:
+                return new BoyerMoore(pattern);
+            case 5:
+                return new WildcardFSM(pattern);
+            case 6:
+                return new Regex(pattern);
+            case 7:
+                return new TwoWay(pattern);
+            default:
+                throw new IllegalArgumentException("Algorithm not implemented");
+        }
+    }
+}
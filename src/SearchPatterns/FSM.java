@@ -1,7 +1,11 @@
 package SearchPatterns;
 
+import Utilities.SearchStats;
 import Utilities.Toolbox;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -19,25 +23,67 @@ import java.util.ArrayList;
  * @date    31.03.2015
  * @version 0.1
  */
-public class FSM {
+public class FSM implements Searcher {
+    // Counters (only when enabled).
+    private static final SearchStats STATS = SearchStats.ENABLED ? SearchStats.get("FSM") : null;
+
+    // The automaton never changes after the constructor : an instance can be shared by threads.
+    private final String pattern;
+
     // Automaton.
-    private ArrayList<Character> alphabet;  // Alphabet of pattern.
-    private int[][] stateValues;            // State's values.
+    private final ArrayList<Character> alphabet;    // Alphabet of pattern.
+    private final TransitionTable stateValues;      // State's values (out of the heap, see TransitionTable).
 
     /**
-     * Default constructor.
+     * Constructor with a pattern.
+     *
+     * @param pattern The pattern to load.
      */
-    public FSM() {
-        this(null);
+    public FSM(String pattern) {
+        this.pattern = pattern;
+        this.alphabet = new ArrayList<Character>();
+        this.stateValues = loadPattern(pattern, this.alphabet);
     }
 
     /**
-     * Constructor with a pattern.
+     * Constructor with the tables saved in a file (see TableFile).
      *
-     * @param pattern The pattern to load.
+     * @param pattern   The pattern.
+     * @param tables    The tables, written by writeTables.
+     * @throws IOException If the tables are not the ones of the pattern.
      */
-    public FSM(String pattern) {
-        this.loadPattern(pattern);
+    FSM(String pattern, ByteBuffer tables) throws IOException {
+        this.pattern = pattern;
+        this.alphabet = new ArrayList<Character>();
+        for (char c : TableFile.readChars(tables).toCharArray()) {
+            TableFile.check(!this.alphabet.contains(c), "alphabet");
+            this.alphabet.add(c);
+        }
+        for (char c : pattern.toCharArray()) {
+            TableFile.check(this.alphabet.contains(c), "alphabet");
+        }
+        this.stateValues = new TransitionTable(tables);
+        TableFile.checkStates(this.stateValues, pattern.length() + 1, this.alphabet.size(),
+                pattern.length() + 1, "automaton");
+    }
+
+    /**
+     * Write the tables (alphabet and automaton), to load them with the constructor.
+     *
+     * @param out   The file.
+     * @throws IOException If the file can not be written.
+     */
+    void writeTables(DataOutputStream out) throws IOException {
+        StringBuilder alphabet = new StringBuilder();
+        for (Character c : this.alphabet) {
+            alphabet.append(c);
+        }
+        TableFile.writeChars(out, alphabet);
+        this.stateValues.write(out);
+    }
+
+    public String getPattern() {
+        return this.pattern;
     }
 
     /**
@@ -57,29 +103,30 @@ public class FSM {
      * If character doesn't match, we shift the current pattern
      * to the left until it matches to find the right state.
      *
-     * @param pattern The pattern to load.
+     * @param pattern     The pattern to load.
+     * @param alphabet    The alphabet to fill.
+     * @return            The state values.
      */
-    public void loadPattern(String pattern) {
-        this.alphabet = new ArrayList<Character>();
+    private static TransitionTable loadPattern(String pattern, ArrayList<Character> alphabet) {
         // Put each different character of pattern into the alphabet.
         for (Character c : pattern.toCharArray()) {
-            if (!this.alphabet.contains(c)) {
-                this.alphabet.add(c);
+            if (!alphabet.contains(c)) {
+                alphabet.add(c);
             }
         }
-        this.stateValues = new int[pattern.length() + 1][this.alphabet.size()];
+        TransitionTable stateValues = new TransitionTable(pattern.length() + 1, alphabet.size());
 
         // Calculate the values of the automaton.
         for (int i = 0; i < pattern.length() + 1; i++) {
-            for (int j = 0; j < this.alphabet.size(); j++) {
+            for (int j = 0; j < alphabet.size(); j++) {
                 // If matches, go to the next state.
-                if (i != pattern.length() && this.alphabet.get(j).equals(pattern.charAt(i))) {
-                    this.stateValues[i][j] = i + 1;
+                if (i != pattern.length() && alphabet.get(j).equals(pattern.charAt(i))) {
+                    stateValues.set(i, j, i + 1);
                 }
                 else {
                     // Construction of the current pattern (position 0 to current state (i)).
                     String subPattern = pattern.substring(0, i);
-                    subPattern += this.alphabet.get(j);
+                    subPattern += alphabet.get(j);
                     int iPattern = i;
                     // Last state is different.
                     // At the end of a pattern, we need to check if letters of pattern found is part
@@ -93,13 +140,14 @@ public class FSM {
                     // Shift to the left.
                     for (int k = 0; k <= pattern.length() - 1; k++) {
                         if (subPattern.substring(k, subPattern.length()).equals(pattern.substring(0, iPattern - k + 1))) {
-                            this.stateValues[i][j] = subPattern.length() - k;   // Attribution of the state and exit the loop.
+                            stateValues.set(i, j, subPattern.length() - k);    // Attribution of the state and exit the loop.
                             break;
                         }
                     }
                 }
             }
         }
+        return stateValues;
     }
 
     /**
@@ -112,30 +160,106 @@ public class FSM {
      * @return          An array containing the positions of appearances.
      */
     public ArrayList<Integer> search(String pattern, String filename) {
-        ArrayList<Integer> output = new ArrayList<Integer>();
-
-        // Reload the pattern.
-        this.loadPattern(pattern);
+        // Another pattern is searched with another automaton (this one is not changed).
+        if (!pattern.equals(this.pattern)) {
+            return new FSM(pattern).search(pattern, filename);
+        }
 
         // Load the file into a StringBuffer.
-        StringBuffer text = Toolbox.read(filename);
+        return this.searchText(Toolbox.load(filename));
+    }
+
+    /**
+     * Search the pattern into a text already loaded.
+     *
+     * @param text  The text to look into.
+     * @return      An array containing the positions of appearances.
+     */
+    @Override
+    public ArrayList<Integer> searchText(CharSequence text) {
+        MatchCollector output = new MatchCollector();
+        Cursor cursor = this.cursor();
+        cursor.feed(text, output);
+        cursor.end(output);
+        return output.getPositions();
+    }
+
+    /**
+     * Create a cursor, to search the pattern into a text given by parts.
+     *
+     * The cursor only keeps the current state of the automaton.
+     *
+     * @return A new cursor, at the beginning of the text.
+     */
+    @Override
+    public Cursor cursor() {
+        return new FSMCursor();
+    }
+
+    /**
+     * Cursor of the automaton.
+     */
+    private class FSMCursor implements Cursor {
+        private int state = 0;      // Start at state 0.
+        private long position = 0;  // Position of the first character of the part in the whole text.
 
-        // Start at state 0.
-        int state = 0;
+        @Override
+        public void feed(CharSequence text, MatchListener output) {
+            long start = SearchStats.ENABLED ? System.nanoTime() : 0;
+            long[] visits = SearchStats.ENABLED ? new long[stateValues.rows()] : null;
+            int state = this.state;
+            int length = stateValues.rows() - 1;    // Length of the pattern.
 
-        for (int i = 0; i < text.length() - 1; i++) {
-            // If the character is not in the alphabet of the pattern, we skip it.
-            if (this.alphabet.indexOf(text.charAt(i)) != -1) {
-                state = this.stateValues[state][this.alphabet.indexOf(text.charAt(i))];
+            for (int i = 0; i < text.length(); i++) {
+                int column = alphabet.indexOf(text.charAt(i));
+                // If the character is not in the alphabet of the pattern, we go back to state 0.
+                if (column == -1) {
+                    state = 0;
+                }
+                else {
+                    state = stateValues.get(state, column);
+                }
+                if (SearchStats.ENABLED) {
+                    visits[state]++;
+                }
                 // If match, put the position into the output array.
-                if (state == pattern.length()) {
+                if (state == length) {
                     // Minus 1 for the length.
-                    output.add(i - (pattern.length() - 1));
+                    output.match(this.position + i - (length - 1));
                 }
             }
+            this.state = state;
+            this.position += text.length();
+            if (SearchStats.ENABLED) {
+                STATS.addSearch(text.length(), System.nanoTime() - start, 0, 0, 0);
+                STATS.addStateVisits(visits);
+            }
+        }
+
+        @Override
+        public void end(MatchListener output) {
+        }
+
+        @Override
+        public long position() {
+            return this.position;
         }
 
-        return output;
+        @Override
+        public String save() {
+            return this.position + " " + this.state;
+        }
+
+        @Override
+        public void restore(String state) {
+            String[] values = state.split(" ");
+            int s = values.length == 2 ? Integer.parseInt(values[1]) : -1;
+            if (s < 0 || s >= stateValues.rows()) {
+                throw new IllegalArgumentException("Not a state of this pattern: " + state);
+            }
+            this.position = Long.parseLong(values[0]);
+            this.state = s;
+        }
     }
 
     /**
@@ -145,10 +269,10 @@ public class FSM {
     public void printState() {
         String s = "";
         // State values
-        for (int i = 0; i < this.stateValues.length; i++) {
+        for (int i = 0; i < this.stateValues.rows(); i++) {
             s += " ";
-            for (int j = 0; j < this.stateValues[i].length; j++) {
-                s += this.stateValues[i][j] + " ";
+            for (int j = 0; j < this.stateValues.columns(); j++) {
+                s += this.stateValues.get(i, j) + " ";
             }
             s += "\n";
         }
@@ -170,10 +294,10 @@ public class FSM {
         }
         s += "\n";
         // State values
-        for (int i = 0; i < this.stateValues.length; i++) {
+        for (int i = 0; i < this.stateValues.rows(); i++) {
             s += "|";
-            for (int j = 0; j < this.stateValues[i].length; j++) {
-                s += this.stateValues[i][j] + "|";
+            for (int j = 0; j < this.stateValues.columns(); j++) {
+                s += this.stateValues.get(i, j) + "|";
             }
             s += "\n";
         }
@@ -1,7 +1,11 @@
 package SearchPatterns;
 
+import Utilities.SearchStats;
 import Utilities.Toolbox;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -20,18 +24,13 @@ import java.util.ArrayList;
  * @date    27.03.2015
  * @version 0.1
  */
-public class KMP {
-    // Overlap array.
-    private ArrayList<Character> overlapChar;   // Character.
-    private ArrayList<Integer> overlapValue;    // Matching value.
+public class KMP implements Searcher {
+    // Counters (only when enabled).
+    private static final SearchStats STATS = SearchStats.ENABLED ? SearchStats.get("KMP") : null;
 
-    /**
-     * Default constructor.
-     */
-    public KMP() {
-        this.overlapChar = new ArrayList<Character>();
-        this.overlapValue = new ArrayList<Integer>();
-    }
+    // Overlap array (never changed after the constructor : an instance can be shared by threads).
+    private final ArrayList<Character> overlapChar = new ArrayList<Character>();    // Character.
+    private final ArrayList<Integer> overlapValue = new ArrayList<Integer>();       // Matching value.
 
     /**
      * Constructor with a pattern.
@@ -39,10 +38,51 @@ public class KMP {
      * Load the pattern and calculate the overlap array.
      */
     public KMP(String pattern) {
-        this();
         this.loadPattern(pattern);
     }
 
+    /**
+     * Constructor with the tables saved in a file (see TableFile).
+     *
+     * @param pattern   The pattern (the characters of the overlap array).
+     * @param tables    The tables, written by writeTables.
+     * @throws IOException If the overlap array is not the one of the pattern.
+     */
+    KMP(String pattern, ByteBuffer tables) throws IOException {
+        for (char c : pattern.toCharArray()) {
+            this.overlapChar.add(c);
+        }
+        int[] values = TableFile.readInts(tables);
+        TableFile.check(values.length == pattern.length(), "length of the overlap array");
+        for (int i = 0; i < values.length; i++) {
+            // A border of the i + 1 first characters is shorter than them.
+            TableFile.check(values[i] >= 0 && values[i] <= i, "overlap value");
+            this.overlapValue.add(values[i]);
+        }
+    }
+
+    /**
+     * Write the tables (values of the overlap array), to load them with the constructor.
+     *
+     * @param out   The file.
+     * @throws IOException If the file can not be written.
+     */
+    void writeTables(DataOutputStream out) throws IOException {
+        int[] values = new int[this.overlapValue.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.overlapValue.get(i);
+        }
+        TableFile.writeInts(out, values);
+    }
+
+    public String getPattern() {
+        StringBuilder pattern = new StringBuilder();
+        for (Character c : this.overlapChar) {
+            pattern.append(c);
+        }
+        return pattern.toString();
+    }
+
     /**
      * Load the pattern into the overlap array.
      *
@@ -53,11 +93,7 @@ public class KMP {
      *
      * @param pattern The pattern to load.
      */
-    public void loadPattern(String pattern) {
-        // Clear the overlaps arrays.
-        this.overlapChar.clear();
-        this.overlapValue.clear();
-
+    private void loadPattern(String pattern) {
         int j = 0;
         // Add characters into the arrays.
         for (int i = 0; i < pattern.length(); i++) {
@@ -67,17 +103,15 @@ public class KMP {
 
         // Loop over character of pattern.
         for (int i = 1; i < pattern.length(); i++) {
+            // Fall back to the shorter prefixes which are also suffixes, until the next character matches
+            // (going back to 0 would miss the prefixes of "aabaaab").
+            while (j > 0 && !this.overlapChar.get(j).equals(this.overlapChar.get(i))) {
+                j = this.overlapValue.get(j - 1);
+            }
             // Check if characters are the same, in order to increase the prefix.
             if (this.overlapChar.get(j).equals(this.overlapChar.get(i))) {
                 j++;
             }
-            else {
-                j = 0;
-                // Recheck if not equal to the first character.
-                if (this.overlapChar.get(j).equals(this.overlapChar.get(i))) {
-                    j++;
-                }
-            }
             this.overlapValue.set(i, j);
         }
     }
@@ -92,34 +126,108 @@ public class KMP {
      * @return          An array containing the positions of appearances.
      */
     public ArrayList<Integer> search(String pattern, String filename) {
-        ArrayList<Integer> output = new ArrayList<Integer>();
-
-        // Reload the pattern.
-        this.loadPattern(pattern);
+        // Another pattern is searched with another overlap array (this one is not changed).
+        if (!pattern.equals(this.getPattern())) {
+            return new KMP(pattern).search(pattern, filename);
+        }
 
         // Load the file into a StringBuffer.
-        StringBuffer text = Toolbox.read(filename);
+        return this.searchText(Toolbox.load(filename));
+    }
 
-        int j = 0;
+    /**
+     * Search the pattern into a text already loaded.
+     *
+     * @param text  The text to look into.
+     * @return      An array containing the positions of appearances.
+     */
+    @Override
+    public ArrayList<Integer> searchText(CharSequence text) {
+        MatchCollector output = new MatchCollector();
+        Cursor cursor = this.cursor();
+        cursor.feed(text, output);
+        cursor.end(output);
+        return output.getPositions();
+    }
 
-        // We need to look for the last characters, else, a word at the end of a text will not be detected.
-        for (int i = 0; i < text.length(); i++) {
-            // Find starting position in overload arrays.
-            while (j > 0 && this.overlapChar.get(j) != text.charAt(i)) {
-                j = this.overlapValue.get(j - 1);
+    /**
+     * Create a cursor, to search the pattern into a text given by parts.
+     *
+     * The cursor only keeps the current position in the overlap array.
+     *
+     * @return A new cursor, at the beginning of the text.
+     */
+    @Override
+    public Cursor cursor() {
+        return new KMPCursor();
+    }
+
+    /**
+     * Cursor of the KMP algorithm.
+     */
+    private class KMPCursor implements Cursor {
+        private int j = 0;          // Number of characters of the pattern found.
+        private long position = 0;  // Position of the first character of the part in the whole text.
+
+        @Override
+        public void feed(CharSequence text, MatchListener output) {
+            long start = SearchStats.ENABLED ? System.nanoTime() : 0;
+            long comparisons = 0;
+            int j = this.j;
+            // We need to look for the last characters, else, a word at the end of a text will not be detected.
+            for (int i = 0; i < text.length(); i++) {
+                // Find starting position in overload arrays.
+                while (j > 0 && overlapChar.get(j) != text.charAt(i)) {
+                    if (SearchStats.ENABLED) {
+                        comparisons++;
+                    }
+                    j = overlapValue.get(j - 1);
+                }
+                if (SearchStats.ENABLED) {
+                    comparisons++;
+                }
+                // If the character is the same as the pattern.
+                if (text.charAt(i) == overlapChar.get(j)) {
+                    j++;
+                }
+                // If match, put the position in the output array.
+                if (j == overlapChar.size()) {
+                    // Minus 1 for the length.
+                    output.match(this.position + i - (overlapChar.size() - 1)); // Return the position of the first character.
+                    j = overlapValue.get(j - 1); // Re-starting position.
+                }
             }
-            // If the character is the same as the pattern.
-            if (text.charAt(i) == this.overlapChar.get(j)) {
-                j++;
+            this.j = j;
+            this.position += text.length();
+            if (SearchStats.ENABLED) {
+                STATS.addSearch(text.length(), System.nanoTime() - start, comparisons, 0, 0);
             }
-            // If match, put the position in the output array.
-            if (j == this.overlapChar.size()) {
-                // Minus 1 for the length.
-                output.add(i - (this.overlapChar.size() - 1)); // Return the position of the first character.
-                j = this.overlapValue.get(j - 1); // Re-starting position.
+        }
+
+        @Override
+        public void end(MatchListener output) {
+        }
+
+        @Override
+        public long position() {
+            return this.position;
+        }
+
+        @Override
+        public String save() {
+            return this.position + " " + this.j;
+        }
+
+        @Override
+        public void restore(String state) {
+            String[] values = state.split(" ");
+            int j = values.length == 2 ? Integer.parseInt(values[1]) : -1;
+            if (j < 0 || j >= overlapChar.size()) {
+                throw new IllegalArgumentException("Not a state of this pattern: " + state);
             }
+            this.position = Long.parseLong(values[0]);
+            this.j = j;
         }
-        return output;
     }
 
     /**
@@ -0,0 +1,31 @@
+package SearchPatterns;
+
+import java.util.ArrayList;
+
+/**
+ * Listener which puts the positions of appearances into an array.
+ *
+ * Used by the search patterns to do a search on a whole text with their cursor.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+class MatchCollector implements MatchListener {
+
+    private ArrayList<Integer> positions = new ArrayList<Integer>();
+
+    @Override
+    public void match(long position) {
+        this.positions.add((int) position);
+    }
+
+    /**
+     * Get the positions of appearances found.
+     *
+     * @return The array of positions.
+     */
+    public ArrayList<Integer> getPositions() {
+        return this.positions;
+    }
+}
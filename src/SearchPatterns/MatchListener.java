@@ -0,0 +1,18 @@
+package SearchPatterns;
+
+/**
+ * Listener of the positions of appearances found by a cursor.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public interface MatchListener {
+
+    /**
+     * Called for each position of appearance, in order.
+     *
+     * @param position The position of the first character of the occurrence.
+     */
+    void match(long position);
+}
@@ -0,0 +1,128 @@
+package SearchPatterns;
+
+import java.util.ArrayList;
+
+/**
+ * Cursor for the search patterns which can only search a whole text (BoyerMoore, TwoWay...).
+ *
+ * The end of each part is kept and put before the next part, so an occurrence found
+ * on the two parts is not lost :
+ *
+ *      - If the length of the occurrences is bounded, the last (length - 1) characters are kept.
+ *        The positions in these characters are only sent with the next part : an occurrence starting
+ *        there can still be found, and the positions are sent in order.
+ *
+ *      - Else, the text is only searched up to the last end of line, and the last line is kept.
+ *        If a line is too long, it is searched anyway (an occurrence on two parts of this line
+ *        can be lost).
+ *
+ * A position already sent to the listener is not sent again.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+class OverlapCursor implements Cursor {
+
+    private static final int MAX_LINE = 1 << 20;   // Biggest line kept when the length is not bounded.
+
+    private Searcher searcher;
+    private int maxLength;          // Length of the longest occurrence (-1 if not bounded).
+    private StringBuilder pending;  // Characters not completely searched.
+    private long pendingStart;      // Position of the first pending character in the whole text.
+    private long lastMatch;         // Last position sent to the listener.
+
+    /**
+     * Constructor.
+     *
+     * @param searcher  The search pattern used on each part.
+     * @param maxLength The length of the longest occurrence (-1 if not bounded).
+     */
+    OverlapCursor(Searcher searcher, int maxLength) {
+        this.searcher = searcher;
+        this.maxLength = maxLength;
+        this.pending = new StringBuilder();
+        this.pendingStart = 0;
+        this.lastMatch = -1;
+    }
+
+    @Override
+    public void feed(CharSequence chunk, MatchListener listener) {
+        this.pending.append(chunk);
+        if (this.maxLength != -1) {
+            // Keep the characters which can be the beginning of an occurrence.
+            int cut = this.pending.length() - Math.min(this.pending.length(), this.maxLength - 1);
+            this.report(this.searcher.searchText(this.pending), cut, listener);
+            this.drop(cut);
+        }
+        else {
+            int cut = this.pending.lastIndexOf("\n") + 1;
+            if (cut == 0 && this.pending.length() >= MAX_LINE) {
+                cut = this.pending.length();
+            }
+            if (cut > 0) {
+                this.report(this.searcher.searchText(this.pending.subSequence(0, cut)), cut, listener);
+                this.drop(cut);
+            }
+        }
+    }
+
+    @Override
+    public void end(MatchListener listener) {
+        if (this.pending.length() > 0) {
+            this.report(this.searcher.searchText(this.pending), this.pending.length(), listener);
+        }
+        this.drop(this.pending.length());
+    }
+
+    @Override
+    public long position() {
+        return this.pendingStart + this.pending.length();
+    }
+
+    @Override
+    public String save() {
+        return this.pendingStart + " " + this.lastMatch + " " + this.pending;
+    }
+
+    @Override
+    public void restore(String state) {
+        String[] values = state.split(" ", 3);
+        if (values.length != 3) {
+            throw new IllegalArgumentException("Not a state of this pattern: " + state);
+        }
+        this.pendingStart = Long.parseLong(values[0]);
+        this.lastMatch = Long.parseLong(values[1]);
+        this.pending = new StringBuilder(values[2]);
+    }
+
+    /**
+     * Send the new positions to the listener.
+     *
+     * @param positions The positions found in the pending characters.
+     * @param cut       The pending characters removed after the search (the positions after them are not sent).
+     * @param listener  The listener.
+     */
+    private void report(ArrayList<Integer> positions, int cut, MatchListener listener) {
+        for (Integer p : positions) {
+            if (p >= cut) {
+                break;
+            }
+            long position = this.pendingStart + p;
+            if (position > this.lastMatch) {
+                listener.match(position);
+                this.lastMatch = position;
+            }
+        }
+    }
+
+    /**
+     * Remove the first pending characters.
+     *
+     * @param count The number of characters to remove.
+     */
+    private void drop(int count) {
+        this.pending.delete(0, count);
+        this.pendingStart += count;
+    }
+}
@@ -0,0 +1,224 @@
+package SearchPatterns;
+
+import java.util.Arrays;
+
+/**
+ * Class to keep a DNA sequence (alphabet A, C, G, T) with 2 bits per base.
+ *
+ * The bases are packed 32 per long (4 per byte), the first base in the lowest bits of the word :
+ *
+ *      A = 0, C = 1, G = 2, T = 3
+ *
+ * so the sequence needs 4 times less memory than a text (2 bytes per char), and each word read
+ * covers 32 bases. The lower case letters (soft-masked regions) are the same bases as the upper case ones.
+ *
+ * The other characters (N and the ambiguity codes R, Y, K, M...) are ambiguous bases : they are packed
+ * as A, and kept as runs (start, end) of ambiguous bases, since they are usually long blocks of N.
+ * An ambiguous base never matches a base of a pattern (see DnaSearch), and is read as 'N'.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class PackedSequence implements CharSequence {
+
+    private static final int CAPACITY = 16;         // Initial number of words and of runs.
+    private static final String BASES = "ACGT";
+
+    private int length = 0;             // Number of bases.
+    private long[] words;               // Bases, 32 per word.
+
+    // Runs of ambiguous bases, in the order of the sequence.
+    private int runs = 0;               // Number of runs.
+    private int[] starts;               // First base of each run.
+    private int[] ends;                 // Base after each run.
+
+    /**
+     * Default constructor (empty sequence).
+     */
+    public PackedSequence() {
+        this.words = new long[CAPACITY];
+        this.starts = new int[CAPACITY];
+        this.ends = new int[CAPACITY];
+    }
+
+    /**
+     * Constructor with a text : each character is a base (the ends of lines are ambiguous bases,
+     * so the positions are the same as in the text).
+     *
+     * @param text The text.
+     */
+    public PackedSequence(CharSequence text) {
+        this.words = new long[Math.max(1, (text.length() + 31) >>> 5)];
+        this.starts = new int[CAPACITY];
+        this.ends = new int[CAPACITY];
+        this.append(text);
+    }
+
+    /**
+     * Code of a base.
+     *
+     * @param c The character.
+     * @return  The code of the base (0 to 3), -1 if the character is not A, C, G or T.
+     */
+    public static int code(char c) {
+        switch (c) {
+            case 'A': case 'a': return 0;
+            case 'C': case 'c': return 1;
+            case 'G': case 'g': return 2;
+            case 'T': case 't': return 3;
+            default: return -1;
+        }
+    }
+
+    /**
+     * Add a base at the end of the sequence.
+     *
+     * @param c The character of the base (ambiguous if not A, C, G or T).
+     */
+    public void append(char c) {
+        if (this.length == Integer.MAX_VALUE) {
+            throw new IllegalStateException("The sequence is too long.");
+        }
+        int word = this.length >>> 5;
+        if (word == this.words.length) {
+            this.words = Arrays.copyOf(this.words, (int) Math.min(Integer.MAX_VALUE, 2L * this.words.length));
+        }
+        int code = code(c);
+        if (code == -1) {
+            // Continue the last run, or start another one.
+            if (this.runs > 0 && this.ends[this.runs - 1] == this.length) {
+                this.ends[this.runs - 1]++;
+            }
+            else {
+                if (this.runs == this.starts.length) {
+                    this.starts = Arrays.copyOf(this.starts, 2 * this.runs);
+                    this.ends = Arrays.copyOf(this.ends, 2 * this.runs);
+                }
+                this.starts[this.runs] = this.length;
+                this.ends[this.runs] = this.length + 1;
+                this.runs++;
+            }
+            code = 0;
+        }
+        this.words[word] |= (long) code << ((this.length & 31) << 1);
+        this.length++;
+    }
+
+    /**
+     * Add bases at the end of the sequence.
+     *
+     * @param text The characters of the bases.
+     */
+    public void append(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            this.append(text.charAt(i));
+        }
+    }
+
+    /**
+     * Free the memory not used at the end of the arrays (once the whole sequence is added).
+     */
+    public void trim() {
+        this.words = Arrays.copyOf(this.words, Math.max(1, (this.length + 31) >>> 5));
+        this.starts = Arrays.copyOf(this.starts, this.runs);
+        this.ends = Arrays.copyOf(this.ends, this.runs);
+    }
+
+    /**
+     * @return The number of bases.
+     */
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Character of a base.
+     *
+     * @param index The position of the base.
+     * @return      'A', 'C', 'G', 'T', or 'N' if the base is ambiguous.
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("Position " + index + " out of " + this.length);
+        }
+        return this.isAmbiguous(index) ? 'N' : BASES.charAt(this.base(index));
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            builder.append(this.charAt(i));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.subSequence(0, this.length).toString();
+    }
+
+    /**
+     * Code of a base (0 for an ambiguous base).
+     *
+     * @param index The position of the base.
+     * @return      The code of the base (0 to 3).
+     */
+    int base(int index) {
+        return (int) (this.words[index >>> 5] >>> ((index & 31) << 1)) & 3;
+    }
+
+    /**
+     * @param index The position of the base.
+     * @return      True if the base is ambiguous (binary search in the runs).
+     */
+    public boolean isAmbiguous(int index) {
+        int run = Arrays.binarySearch(this.starts, 0, this.runs, index);
+        if (run < 0) {
+            run = -run - 2;     // Last run starting before the position.
+        }
+        return run >= 0 && index < this.ends[run];
+    }
+
+    /**
+     * @return The words of the bases (32 per word, the first base in the lowest bits), not to be modified.
+     */
+    long[] words() {
+        return this.words;
+    }
+
+    /**
+     * @return The number of runs of ambiguous bases.
+     */
+    public int getRuns() {
+        return this.runs;
+    }
+
+    /**
+     * @param run   The number of the run.
+     * @return      The first base of the run.
+     */
+    public int getRunStart(int run) {
+        return this.starts[run];
+    }
+
+    /**
+     * @param run   The number of the run.
+     * @return      The base after the run.
+     */
+    public int getRunEnd(int run) {
+        return this.ends[run];
+    }
+
+    public static void main(String[] args) {
+        PackedSequence sequence = new PackedSequence("ACGTNNacgtRYA");
+        // Afficher la sequence, sa longueur et les blocs de bases ambigues
+        System.out.println(sequence + " " + sequence.length());
+        for (int r = 0; r < sequence.getRuns(); r++) {
+            System.out.println(sequence.getRunStart(r) + " " + sequence.getRunEnd(r));
+        }
+    }
+}
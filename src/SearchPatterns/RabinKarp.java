@@ -1,7 +1,11 @@
 package SearchPatterns;
 
+import Utilities.SearchStats;
 import Utilities.Toolbox;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -14,61 +18,89 @@ import java.util.ArrayList;
  * @version 0.1
  * @date 23.04.2015
  */
-public class RabinKarp {
+public class RabinKarp implements Searcher {
 
-    private String text;
-    private String pattern;
-    private int hashPattern;
-    private int q = 3355439; // q-1 is the biggest hash possible
-    private int d = 256; // size of the alphabet (ascii)
+    /**
+     * Counters (only when enabled).
+     */
+    private static final SearchStats STATS = SearchStats.ENABLED ? SearchStats.get("RabinKarp") : null;
 
     /**
-     * Default constructor
+     * The compiled pattern never changes after the constructor, so an instance can be shared by threads
+     * (the state of a search is in its cursor).
      */
-    public RabinKarp () {
-        this(null);
-    }
+    private final String pattern;
+    private final int q; // q-1 is the biggest hash possible
+    private final int d; // size of the alphabet (ascii)
+    private final int dm; // d^(length of the pattern - 1) % q, weight of the first character in the hash
+    private final int hashPattern;
 
     /**
      * Constructor.
      * @param pattern
      */
     public RabinKarp (String pattern) {
-        setPattern(pattern);
-    }
-
-    /**
-     * GETTERS AND SETTERS
-     */
-    public String getText() {
-        return this.text;
-    }
+        this.pattern = pattern;
+        this.q = 3355439;
+        this.d = 256;
 
-    public void setText (String filename) {
-        this.text = getTextFromFile(filename);
-    }
+        /**
+         * Hash of the pattern.
+         */
+        this.hashPattern = hashRabinKarp(pattern);
 
-    public String getPattern () {
-        return this.pattern;
+        /**
+         * Weight of the first character, used to remove it from the hash when the text is shifted.
+         */
+        int dm = 1;
+        for (int i = 1; i < pattern.length(); i++) {
+            dm = (dm * d) % q;
+        }
+        this.dm = dm;
     }
 
-    public void setPattern(String pattern) {
+    /**
+     * Constructor with the tables saved in a file (see TableFile).
+     * @param pattern The pattern
+     * @param tables The base, the modulo, the weight of the first character and the hash of the pattern
+     * @throws IOException If the numbers are not the ones of the pattern
+     */
+    RabinKarp (String pattern, ByteBuffer tables) throws IOException {
         this.pattern = pattern;
+        this.d = tables.getInt();
+        this.q = tables.getInt();
+        this.dm = tables.getInt();
+        this.hashPattern = tables.getInt();
 
         /**
-         * Update the hash of the pattern when the user wants to change the pattern.
+         * The hash of the pattern and the weight are computed again with the base and the modulo read.
          */
-        this.hashPattern = hashRabinKarp(pattern);
+        TableFile.check(d > 0 && q > 0 && (long) (q - 1) * d + Character.MAX_VALUE <= Integer.MAX_VALUE, "base and modulo");
+        TableFile.check(hashPattern == hashRabinKarp(pattern), "hash of the pattern");
+        int weight = 1;
+        for (int i = 1; i < pattern.length(); i++) {
+            weight = (weight * d) % q;
+        }
+        TableFile.check(dm == weight, "weight of the first character");
     }
 
     /**
-     * Function used to load a text from a file
-     * @param filename File to load
-     * @return the string containing the loaded file
+     * Write the numbers of the hash, to load them with the constructor.
+     * @param out The file
+     * @throws IOException If the file can not be written
+     */
+    void writeTables (DataOutputStream out) throws IOException {
+        out.writeInt(d);
+        out.writeInt(q);
+        out.writeInt(dm);
+        out.writeInt(hashPattern);
+    }
+
+    /**
+     * GETTERS
      */
-    public String getTextFromFile (String filename) {
-        StringBuffer textSB = Toolbox.read(filename);
-        return textSB.toString();
+    public String getPattern () {
+        return this.pattern;
     }
 
     /**
@@ -90,14 +122,17 @@ public class RabinKarp {
     }
 
     /**
-     * Updates the pattern and search the pattern into the file.
-     * @param pattern New pattern.
+     * Search a pattern into the file.
+     * The instance is not changed : another pattern is searched with a new instance.
+     * @param pattern Pattern to look for.
      * @param filename File to load
      * @return An ArrayList<Integer> with the position of every match in the text.
      */
     public ArrayList<Integer> search (String pattern, String filename) {
-        setPattern(pattern);
-        return search(filename);
+        if (pattern.equals(this.pattern)) {
+            return search(filename);
+        }
+        return new RabinKarp(pattern).search(filename);
     }
 
     /**
@@ -109,41 +144,127 @@ public class RabinKarp {
         /**
          * Initialization
          */
-        text = getTextFromFile(filename);
-        int lenText = text.length();
-        int lenPattern = pattern.length();
-        ArrayList<Integer> results = new ArrayList<Integer>();
+        return searchText(Toolbox.load(filename));
+    }
 
-        /**
-         * Takes the first part of the text, the size of each part is equal the size of the pattern.
-         */
-        int hashText = hashRabinKarp(text.substring(0, lenPattern));
+    /**
+     * Method which contains the algorithm of Rabin-Karp, on a text already loaded.
+     * @param text The text to look into.
+     * @return An ArrayList<Integer> with the position of every match in the text.
+     */
+    @Override
+    public ArrayList<Integer> searchText (CharSequence text) {
+        MatchCollector results = new MatchCollector();
+        Cursor cursor = cursor();
+        cursor.feed(text, results);
+        cursor.end(results);
+        return results.getPositions();
+    }
 
-        /**
-         * Loops while we are not reaching the end of the text.
-         */
-        for (int i = 0; i <= (lenText-lenPattern); i++) {
+    /**
+     * Create a cursor, to search the pattern into a text given by parts.
+     * The cursor keeps the hash of the last characters and these characters (to compare them with the pattern).
+     * @return A new cursor, at the beginning of the text.
+     */
+    @Override
+    public Cursor cursor () {
+        return new RabinKarpCursor();
+    }
+
+    /**
+     * Cursor of the Rabin-Karp algorithm.
+     */
+    private class RabinKarpCursor implements Cursor {
+        private char[] window = new char[pattern.length()]; // last characters (circular array)
+        private int hashText = 0; // hash of the last characters
+        private long position = 0; // number of characters already read
+
+        @Override
+        public void feed (CharSequence text, MatchListener results) {
+            long startTime = SearchStats.ENABLED ? System.nanoTime() : 0;
+            long comparisons = 0;
+            long verifications = 0;
+            long spuriousHits = 0;
+            int lenPattern = pattern.length();
+            int hashText = this.hashText;
+            long position = this.position;
 
             /**
-             * First compares if both hashes are equals.
+             * Loops while we are not reaching the end of the text.
              */
-            if (hashText == hashPattern) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int slot = (int) (position % lenPattern);
+
                 /**
-                 * And then compares the actually two texts to avoid the collisions due to the hash method.
+                 * The oldest character is removed from the hash (when the window is full), and the new one is added.
+                 * A long is used to avoid an overflow.
                  */
-                if (text.substring(i, i+lenPattern).equals(pattern)) {
-                    results.add(i);
+                if (position >= lenPattern) {
+                    hashText = (int) ((hashText + q - ((long) window[slot] * dm) % q) % q);
                 }
+                hashText = (int) (((long) hashText * d + c) % q);
+                window[slot] = c;
+                position++;
+
+                /**
+                 * First compares if both hashes are equals.
+                 */
+                if (position >= lenPattern && hashText == hashPattern) {
+                    /**
+                     * And then compares the actually two texts to avoid the collisions due to the hash method.
+                     * The oldest character is the next slot of the circular array.
+                     */
+                    int start = (int) (position % lenPattern);
+                    int k = 0;
+                    while (k < lenPattern && window[(start + k) % lenPattern] == pattern.charAt(k)) {
+                        k++;
+                    }
+                    if (SearchStats.ENABLED) {
+                        verifications++;
+                        comparisons += Math.min(k + 1, lenPattern);
+                        if (k != lenPattern)
+                            spuriousHits++;
+                    }
+                    if (k == lenPattern) {
+                        results.match(position - lenPattern);
+                    }
+                }
+            }
+            this.hashText = hashText;
+            this.position = position;
+            if (SearchStats.ENABLED) {
+                STATS.addSearch(text.length(), System.nanoTime() - startTime, comparisons, verifications, spuriousHits);
             }
+        }
 
-            /**
-             * If the algorithm is not at the last piece of the text, we load the next one.
-             */
-            if (i != (lenText-lenPattern))
-                hashText = hashRabinKarp(text.substring(i+1, i+lenPattern+1));
+        @Override
+        public void end (MatchListener results) {
         }
 
-        return results;
+        @Override
+        public long position () {
+            return this.position;
+        }
+
+        /**
+         * The window is saved as it is (circular array), after the position and the hash.
+         */
+        @Override
+        public String save () {
+            return this.position + " " + this.hashText + " " + new String(this.window);
+        }
+
+        @Override
+        public void restore (String state) {
+            String[] values = state.split(" ", 3);
+            if (values.length != 3 || values[2].length() != this.window.length) {
+                throw new IllegalArgumentException("Not a state of this pattern: " + state);
+            }
+            this.position = Long.parseLong(values[0]);
+            this.hashText = Integer.parseInt(values[1]);
+            this.window = values[2].toCharArray();
+        }
     }
 
     /**
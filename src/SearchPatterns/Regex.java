@@ -0,0 +1,1258 @@
+package SearchPatterns;
+
+import Utilities.SearchStats;
+import Utilities.Toolbox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * Class to implement a regular expression engine with a lazy deterministic automaton.
+ *
+ * The syntax supported is :
+ *
+ *      - .             Any character except '\n'.
+ *      - [abc] [^a-z]  Classes of characters (ranges and negation).
+ *      - \d \w \s      Digits, word characters and spaces (\D \W \S for the opposite).
+ *      - * + ? {n,m}   Repetitions ({n}, {n,} and {n,m}).
+ *      - a|b           Alternation.
+ *      - (...) (?:...) Groups.
+ *      - \c            The character c itself (\n, \t, \r and \f are also recognized).
+ *
+ * The expression is parsed into a tree, and the tree is compiled into a non-deterministic
+ * automaton (Thompson construction). The states of the deterministic automaton are sets of
+ * states of the non-deterministic one. They are not built in advance (there may be too many),
+ * but during the search, when a transition is needed for the first time. The transitions found
+ * are kept in a table, so the next time, the search is only one lookup per character.
+ *
+ * The table is bounded. When it is full, it is cleared and the search continues. If it is cleared
+ * too often (fewer than 10 characters scanned per state created), the deterministic automaton is
+ * not useful anymore and the non-deterministic automaton is simulated directly.
+ *
+ * The characters are grouped in classes (characters which are always accepted by the same states),
+ * so the table only has one column per class.
+ *
+ * The first characters of the occurrences are found with a second automaton, built on the reversed
+ * expression and run backward from the end of the text (each character is read once). From the leftmost
+ * first character, the automaton of the expression finds the longest occurrence, and the search goes on
+ * after it.
+ *
+ * If every occurrence contains a literal string, this string is searched first with TwoWay (no table to build).
+ * If it is not found, the text doesn't contain any occurrence. If the string is at the start of every
+ * occurrence, the text before its first position is not read backward. If the length is bounded too,
+ * the automaton is only started at the positions of the string.
+ *
+ * Occurrences are searched from left to right, and do not overlap. The occurrence starting at the
+ * leftmost position is found, and the longest one is kept. Empty occurrences are ignored. An occurrence
+ * does not go past the end of its line (it can end with the '\n'), so the text can be searched line by line
+ * (see cursor).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class Regex implements Searcher {
+    // Types of states of the non-deterministic automaton.
+    private static final int CHAR = 0;      // Read a character of the set and go to out1.
+    private static final int SPLIT = 1;     // Go to out1 and out2 without reading a character.
+    private static final int MATCH = 2;     // Occurrence found.
+
+    // Special states of the deterministic automaton.
+    private static final int DEAD = -1;     // No more active states.
+    private static final int UNKNOWN = -2;  // Transition not computed yet.
+
+    private static final int MAX_REPEAT = 1000;         // Biggest value allowed in {n,m}.
+    private static final int DEFAULT_CACHE_SIZE = 4096; // Default number of states kept in the table.
+    private static final int MIN_CHARS_PER_STATE = 10;  // Below this, the table is not efficient.
+    private static final int MAX_BAD_RESETS = 3;        // Inefficient resets before using the NFA.
+
+    // Counters (only when enabled).
+    private static final SearchStats STATS = SearchStats.ENABLED ? SearchStats.get("Regex") : null;
+
+    // Never changed after the constructor : an instance can be shared by threads.
+    private final String pattern;
+    private final int cacheSize;
+
+    // Non-deterministic automaton.
+    private final int[] types;              // Type of each state.
+    private final int[] out1;               // First next state.
+    private final int[] out2;               // Second next state (only for SPLIT).
+    private final boolean[][] accepts;      // Classes of characters accepted by each CHAR state.
+    private final int start;                // Initial state.
+    private final int reverseStart;         // Initial state of the reversed expression (same MATCH state).
+
+    // Classes of characters.
+    private final int[] bounds;             // First character of each class.
+    private final int[] asciiClasses;       // Class of the first 256 characters.
+
+    // Properties of the expression.
+    private final int minLength;            // Length of the shortest occurrence.
+    private final int maxLength;            // Length of the longest occurrence (-1 if not bounded).
+    private final String literal;           // String found in every occurrence (null if none).
+    private final boolean literalPrefix;    // If the string is at the start of every occurrence.
+    private final TwoWay literalSearcher;   // Search of the string (null if none).
+
+    // Deterministic automata, built during the searches : each thread has its own (see Automata).
+    private final ThreadLocal<Automata> automata = new ThreadLocal<Automata>() {
+        @Override
+        protected Automata initialValue() {
+            return new Automata();
+        }
+    };
+
+    /**
+     * Node of the tree of the expression.
+     */
+    private static class Node {
+        private static final int SET = 0;
+        private static final int CONCAT = 1;
+        private static final int ALTERNATE = 2;
+        private static final int REPEAT = 3;
+
+        private int type;
+        private BitSet set;                 // Characters (for SET).
+        private ArrayList<Node> children;   // For CONCAT and ALTERNATE.
+        private Node child;                 // For REPEAT.
+        private int min;                    // For REPEAT.
+        private int max;                    // For REPEAT (-1 if not bounded).
+
+        private Node(int type) {
+            this.type = type;
+            this.children = new ArrayList<Node>();
+        }
+    }
+
+    /**
+     * Constructor with a pattern.
+     *
+     * @param pattern The regular expression.
+     */
+    public Regex(String pattern) {
+        this(pattern, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor with a pattern and the size of the table of states.
+     *
+     * @param pattern   The regular expression.
+     * @param cacheSize The number of states of the deterministic automaton kept in the table.
+     */
+    public Regex(String pattern, int cacheSize) {
+        this.cacheSize = Math.max(cacheSize, 2);
+        this.pattern = pattern;
+
+        // Parse the expression, build the non-deterministic automaton and the classes of characters.
+        int[] position = {0};
+        Node root = this.parseAlternate(pattern, position);
+        if (position[0] < pattern.length()) {
+            throw new IllegalArgumentException("Unexpected ')' at position " + position[0] + ".");
+        }
+
+        // Lengths of the occurrences.
+        int[] lengths = length(root);
+        this.minLength = lengths[0];
+        this.maxLength = lengths[1];
+
+        // Classes of characters : the bounds are the characters where a set starts or ends.
+        ArrayList<BitSet> sets = new ArrayList<BitSet>();
+        collectSets(root, sets);
+        BitSet starts = new BitSet();
+        starts.set(0);
+        for (BitSet set : sets) {
+            for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(set.nextClearBit(i))) {
+                starts.set(i);
+                if (set.nextClearBit(i) <= Character.MAX_VALUE) {
+                    starts.set(set.nextClearBit(i));
+                }
+            }
+        }
+        int[] bounds = new int[starts.cardinality()];
+        int k = 0;
+        for (int i = starts.nextSetBit(0); i >= 0; i = starts.nextSetBit(i + 1)) {
+            bounds[k++] = i;
+        }
+        this.bounds = bounds;
+        int[] asciiClasses = new int[256];
+        for (int c = 0; c < 256; c++) {
+            asciiClasses[c] = this.findClass((char) c);
+        }
+        this.asciiClasses = asciiClasses;
+
+        // Non-deterministic automaton, built from the end.
+        ArrayList<int[]> states = new ArrayList<int[]>();
+        ArrayList<BitSet> stateSets = new ArrayList<BitSet>();
+        int match = addState(states, stateSets, MATCH, -1, -1, null);
+        this.start = this.compile(root, match, false, states, stateSets);
+        this.reverseStart = this.compile(root, match, true, states, stateSets);
+        int[] types = new int[states.size()];
+        int[] out1 = new int[states.size()];
+        int[] out2 = new int[states.size()];
+        boolean[][] accepts = new boolean[states.size()][];
+        for (int i = 0; i < states.size(); i++) {
+            types[i] = states.get(i)[0];
+            out1[i] = states.get(i)[1];
+            out2[i] = states.get(i)[2];
+            if (types[i] == CHAR) {
+                accepts[i] = new boolean[this.bounds.length];
+                for (int j = 0; j < this.bounds.length; j++) {
+                    accepts[i][j] = stateSets.get(i).get(this.bounds[j]);
+                }
+            }
+        }
+        this.types = types;
+        this.out1 = out1;
+        this.out2 = out2;
+        this.accepts = accepts;
+
+        // String found in every occurrence.
+        boolean[] prefix = {false};
+        this.literal = findLiteral(root, prefix);
+        this.literalPrefix = prefix[0];
+        this.literalSearcher = this.literal == null ? null : new TwoWay(this.literal);
+    }
+
+    /**
+     * Parse an alternation (a|b|c).
+     *
+     * @param p         The pattern.
+     * @param position  The current position in the pattern (updated).
+     * @return          The node.
+     */
+    private Node parseAlternate(String p, int[] position) {
+        Node node = new Node(Node.ALTERNATE);
+        node.children.add(this.parseConcat(p, position));
+        while (position[0] < p.length() && p.charAt(position[0]) == '|') {
+            position[0]++;
+            node.children.add(this.parseConcat(p, position));
+        }
+        return node.children.size() == 1 ? node.children.get(0) : node;
+    }
+
+    /**
+     * Parse a concatenation (until '|', ')' or the end of the pattern).
+     *
+     * @param p         The pattern.
+     * @param position  The current position in the pattern (updated).
+     * @return          The node.
+     */
+    private Node parseConcat(String p, int[] position) {
+        Node node = new Node(Node.CONCAT);
+        while (position[0] < p.length() && p.charAt(position[0]) != '|' && p.charAt(position[0]) != ')') {
+            node.children.add(this.parseRepeat(p, position));
+        }
+        return node.children.size() == 1 ? node.children.get(0) : node;
+    }
+
+    /**
+     * Parse an atom followed by its repetitions (*, +, ?, {n,m}).
+     *
+     * @param p         The pattern.
+     * @param position  The current position in the pattern (updated).
+     * @return          The node.
+     */
+    private Node parseRepeat(String p, int[] position) {
+        Node node = this.parseAtom(p, position);
+        while (position[0] < p.length()) {
+            char c = p.charAt(position[0]);
+            int min;
+            int max;
+            if (c == '*') {
+                min = 0;
+                max = -1;
+            }
+            else if (c == '+') {
+                min = 1;
+                max = -1;
+            }
+            else if (c == '?') {
+                min = 0;
+                max = 1;
+            }
+            else if (c == '{') {
+                int end = p.indexOf('}', position[0]);
+                if (end == -1) {
+                    throw new IllegalArgumentException("Missing '}' in the pattern.");
+                }
+                String content = p.substring(position[0] + 1, end);
+                int comma = content.indexOf(',');
+                try {
+                    if (comma == -1) {
+                        min = Integer.parseInt(content.trim());
+                        max = min;
+                    }
+                    else {
+                        min = Integer.parseInt(content.substring(0, comma).trim());
+                        String upper = content.substring(comma + 1).trim();
+                        max = upper.isEmpty() ? -1 : Integer.parseInt(upper);
+                    }
+                }
+                catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad repetition {" + content + "} in the pattern.");
+                }
+                if (min > MAX_REPEAT || max > MAX_REPEAT || (max != -1 && max < min)) {
+                    throw new IllegalArgumentException("Bad repetition {" + content + "} in the pattern.");
+                }
+                position[0] = end;
+            }
+            else {
+                break;
+            }
+            position[0]++;
+            Node repeat = new Node(Node.REPEAT);
+            repeat.child = node;
+            repeat.min = min;
+            repeat.max = max;
+            node = repeat;
+        }
+        return node;
+    }
+
+    /**
+     * Parse an atom : a group, a class, '.', an escaped character or a character.
+     *
+     * @param p         The pattern.
+     * @param position  The current position in the pattern (updated).
+     * @return          The node.
+     */
+    private Node parseAtom(String p, int[] position) {
+        char c = p.charAt(position[0]);
+        Node node = new Node(Node.SET);
+        node.set = new BitSet();
+        if (c == '(') {
+            position[0]++;
+            // Non-capturing group (no difference here).
+            if (p.startsWith("?:", position[0])) {
+                position[0] += 2;
+            }
+            Node group = this.parseAlternate(p, position);
+            if (position[0] >= p.length()) {
+                throw new IllegalArgumentException("Missing ')' in the pattern.");
+            }
+            position[0]++;
+            return group;
+        }
+        else if (c == '[') {
+            position[0]++;
+            boolean negated = position[0] < p.length() && p.charAt(position[0]) == '^';
+            if (negated) {
+                position[0]++;
+            }
+            boolean first = true;
+            while (position[0] < p.length() && (first || p.charAt(position[0]) != ']')) {
+                first = false;
+                int from = this.parseClassChar(p, position, node.set);
+                // Range of characters.
+                if (from != -1 && position[0] + 1 < p.length() && p.charAt(position[0]) == '-'
+                        && p.charAt(position[0] + 1) != ']') {
+                    position[0]++;
+                    int to = this.parseClassChar(p, position, node.set);
+                    if (to == -1 || to < from) {
+                        throw new IllegalArgumentException("Bad range in the pattern.");
+                    }
+                    node.set.set(from, to + 1);
+                }
+                else if (from != -1) {
+                    node.set.set(from);
+                }
+            }
+            if (position[0] >= p.length()) {
+                throw new IllegalArgumentException("Missing ']' in the pattern.");
+            }
+            position[0]++;
+            if (negated) {
+                node.set.flip(0, Character.MAX_VALUE + 1);
+            }
+        }
+        else if (c == '.') {
+            position[0]++;
+            node.set.set(0, Character.MAX_VALUE + 1);
+            node.set.clear('\n');
+        }
+        else if (c == '\\') {
+            int single = this.parseEscape(p, position, node.set);
+            if (single != -1) {
+                node.set.set(single);
+            }
+        }
+        else if (c == '^' || c == '$') {
+            throw new IllegalArgumentException("Anchors are not supported.");
+        }
+        else if (c == '*' || c == '+' || c == '?' || c == '{') {
+            throw new IllegalArgumentException("Nothing to repeat at position " + position[0] + ".");
+        }
+        else {
+            position[0]++;
+            node.set.set(c);
+        }
+        return node;
+    }
+
+    /**
+     * Parse a character in a class.
+     *
+     * @param p         The pattern.
+     * @param position  The current position in the pattern (updated).
+     * @param set       The set where the escaped classes (\d, \w...) are added.
+     * @return          The character, or -1 if a class has been added to the set.
+     */
+    private int parseClassChar(String p, int[] position, BitSet set) {
+        char c = p.charAt(position[0]);
+        if (c == '\\') {
+            return this.parseEscape(p, position, set);
+        }
+        position[0]++;
+        return c;
+    }
+
+    /**
+     * Parse an escaped character (\d, \w, \s, \n, \t...).
+     *
+     * @param p         The pattern.
+     * @param position  The current position in the pattern, on the '\' (updated).
+     * @param set       The set where the escaped classes (\d, \w...) are added.
+     * @return          The character, or -1 if a class has been added to the set.
+     */
+    private int parseEscape(String p, int[] position, BitSet set) {
+        if (position[0] + 1 >= p.length()) {
+            throw new IllegalArgumentException("Missing character after '\\' in the pattern.");
+        }
+        char c = p.charAt(position[0] + 1);
+        position[0] += 2;
+        BitSet escaped = new BitSet();
+        switch (Character.toLowerCase(c)) {
+            case 'd':
+                escaped.set('0', '9' + 1);
+                break;
+            case 'w':
+                escaped.set('0', '9' + 1);
+                escaped.set('a', 'z' + 1);
+                escaped.set('A', 'Z' + 1);
+                escaped.set('_');
+                break;
+            case 's':
+                escaped.set(' ');
+                escaped.set('\t');
+                escaped.set('\n');
+                escaped.set('\r');
+                escaped.set('\f');
+                escaped.set('\u000B');
+                break;
+            case 'n':
+                return c == 'n' ? '\n' : c;
+            case 't':
+                return c == 't' ? '\t' : c;
+            case 'r':
+                return c == 'r' ? '\r' : c;
+            case 'f':
+                return c == 'f' ? '\f' : c;
+            default:
+                return c;
+        }
+        // Upper case is the opposite class.
+        if (Character.isUpperCase(c)) {
+            escaped.flip(0, Character.MAX_VALUE + 1);
+        }
+        set.or(escaped);
+        return -1;
+    }
+
+    /**
+     * Compute the length of the shortest and of the longest occurrence of a node.
+     *
+     * @param node  The node.
+     * @return      The two lengths (the second is -1 if not bounded).
+     */
+    private static int[] length(Node node) {
+        switch (node.type) {
+            case Node.SET:
+                return new int[]{1, 1};
+            case Node.CONCAT: {
+                int[] result = {0, 0};
+                for (Node child : node.children) {
+                    int[] l = length(child);
+                    result[0] += l[0];
+                    result[1] = (result[1] == -1 || l[1] == -1) ? -1 : result[1] + l[1];
+                }
+                return result;
+            }
+            case Node.ALTERNATE: {
+                int[] result = {Integer.MAX_VALUE, 0};
+                for (Node child : node.children) {
+                    int[] l = length(child);
+                    result[0] = Math.min(result[0], l[0]);
+                    result[1] = (result[1] == -1 || l[1] == -1) ? -1 : Math.max(result[1], l[1]);
+                }
+                return result;
+            }
+            default: {
+                int[] l = length(node.child);
+                int max = (node.max == -1 || l[1] == -1) ? -1 : node.max * l[1];
+                // An empty repetition has a length of 0.
+                if (node.max == 0) {
+                    max = 0;
+                }
+                return new int[]{node.min * l[0], max};
+            }
+        }
+    }
+
+    /**
+     * Put all the sets of characters of the tree in a list.
+     *
+     * @param node  The node.
+     * @param sets  The list to fill in.
+     */
+    private static void collectSets(Node node, ArrayList<BitSet> sets) {
+        if (node.type == Node.SET) {
+            sets.add(node.set);
+        }
+        else if (node.type == Node.REPEAT) {
+            collectSets(node.child, sets);
+        }
+        else {
+            for (Node child : node.children) {
+                collectSets(child, sets);
+            }
+        }
+    }
+
+    /**
+     * Add a state to the non-deterministic automaton.
+     *
+     * @param states    The states (type, out1, out2).
+     * @param sets      The sets of characters of the states.
+     * @param type      The type of the new state.
+     * @param out1      The first next state.
+     * @param out2      The second next state.
+     * @param set       The set of characters (for CHAR).
+     * @return          The index of the new state.
+     */
+    private static int addState(ArrayList<int[]> states, ArrayList<BitSet> sets,
+                                int type, int out1, int out2, BitSet set) {
+        states.add(new int[]{type, out1, out2});
+        sets.add(set);
+        return states.size() - 1;
+    }
+
+    /**
+     * Compile a node into states of the non-deterministic automaton (Thompson construction).
+     *
+     * The automaton is built from the end, so the next state is always known.
+     *
+     * @param node      The node to compile.
+     * @param next      The state to go to after the node.
+     * @param reversed  If the node is compiled for a text read backward (the concatenations are reversed).
+     * @param states    The states (type, out1, out2).
+     * @param sets      The sets of characters of the states.
+     * @return          The first state of the node.
+     */
+    private int compile(Node node, int next, boolean reversed, ArrayList<int[]> states, ArrayList<BitSet> sets) {
+        switch (node.type) {
+            case Node.SET:
+                return addState(states, sets, CHAR, next, -1, node.set);
+            case Node.CONCAT:
+                for (int k = 0; k < node.children.size(); k++) {
+                    int i = reversed ? k : node.children.size() - 1 - k;
+                    next = this.compile(node.children.get(i), next, reversed, states, sets);
+                }
+                return next;
+            case Node.ALTERNATE: {
+                int first = this.compile(node.children.get(node.children.size() - 1), next, reversed, states, sets);
+                for (int i = node.children.size() - 2; i >= 0; i--) {
+                    int branch = this.compile(node.children.get(i), next, reversed, states, sets);
+                    first = addState(states, sets, SPLIT, branch, first, null);
+                }
+                return first;
+            }
+            default: {
+                int current;
+                if (node.max == -1) {
+                    // Loop : the state is created first, so the node can come back to it.
+                    int loop = addState(states, sets, SPLIT, -1, next, null);
+                    states.get(loop)[1] = this.compile(node.child, loop, reversed, states, sets);
+                    current = loop;
+                }
+                else {
+                    // Optional copies (max - min), each one can stop the repetition.
+                    current = next;
+                    for (int i = 0; i < node.max - node.min; i++) {
+                        int copy = this.compile(node.child, current, reversed, states, sets);
+                        current = addState(states, sets, SPLIT, copy, next, null);
+                    }
+                }
+                // Required copies.
+                for (int i = 0; i < node.min; i++) {
+                    current = this.compile(node.child, current, reversed, states, sets);
+                }
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Find the longest string of characters which is in every occurrence.
+     *
+     * Only the characters of the top concatenation are used (alternations are ignored).
+     *
+     * @param root      The root of the tree.
+     * @param prefixes  If the string is at the start of every occurrence (set in the first cell).
+     * @return          The string (null if none).
+     */
+    private static String findLiteral(Node root, boolean[] prefixes) {
+        String literal = null;
+        ArrayList<Node> nodes = new ArrayList<Node>();
+        flatten(root, nodes);
+        String current = "";
+        boolean prefix = true;
+        for (int i = 0; i <= nodes.size(); i++) {
+            Node node = i < nodes.size() ? nodes.get(i) : null;
+            boolean single = node != null && node.type == Node.SET && node.set.cardinality() == 1;
+            if (single) {
+                current += (char) node.set.nextSetBit(0);
+            }
+            // A repetition of one character (at least once) ends the current string.
+            boolean repeat = node != null && node.type == Node.REPEAT && node.min > 0
+                    && node.child.type == Node.SET && node.child.set.cardinality() == 1;
+            if (repeat) {
+                current += (char) node.child.set.nextSetBit(0);
+            }
+            if (!single) {
+                if (literal == null || current.length() > literal.length()) {
+                    if (!current.isEmpty()) {
+                        literal = current;
+                        prefixes[0] = prefix;
+                    }
+                }
+                current = "";
+                prefix = false;
+            }
+        }
+        return literal;
+    }
+
+    /**
+     * Put the nodes of the top concatenation in a list (groups are opened).
+     *
+     * @param node  The node.
+     * @param nodes The list to fill in.
+     */
+    private static void flatten(Node node, ArrayList<Node> nodes) {
+        if (node.type == Node.CONCAT) {
+            for (Node child : node.children) {
+                flatten(child, nodes);
+            }
+        }
+        else {
+            nodes.add(node);
+        }
+    }
+
+    /**
+     * Get the class of a character.
+     *
+     * @param c The character.
+     * @return  The class.
+     */
+    private int classOf(char c) {
+        return c < 256 ? this.asciiClasses[c] : this.findClass(c);
+    }
+
+    /**
+     * Find the class of a character with a binary search in the bounds.
+     *
+     * @param c The character.
+     * @return  The class.
+     */
+    private int findClass(char c) {
+        int i = Arrays.binarySearch(this.bounds, c);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * Add a state and all the states we can reach without reading a character.
+     *
+     * Only CHAR and MATCH states are added to the set.
+     *
+     * @param state     The state to add.
+     * @param set       The set (states already added are marked).
+     * @param marks     The marks of the states already visited.
+     * @param size      The number of states in the set.
+     * @return          The new number of states in the set.
+     */
+    private int closure(int state, int[] set, boolean[] marks, int size) {
+        if (state < 0 || marks[state]) {
+            return size;
+        }
+        marks[state] = true;
+        if (this.types[state] == SPLIT) {
+            size = this.closure(this.out1[state], set, marks, size);
+            return this.closure(this.out2[state], set, marks, size);
+        }
+        set[size] = state;
+        return size + 1;
+    }
+
+    /**
+     * Compute the set of states after reading a character of a class.
+     *
+     * @param current   The current set of states.
+     * @param c         The class of the character.
+     * @param start     The initial state.
+     * @param inject    If the initial state is added (an occurrence can start at the next character).
+     * @return          The next set of states (sorted).
+     */
+    private int[] step(int[] current, int c, int start, boolean inject) {
+        int[] set = new int[this.types.length];
+        boolean[] marks = new boolean[this.types.length];
+        int size = 0;
+        for (int state : current) {
+            if (this.types[state] == CHAR && this.accepts[state][c]) {
+                size = this.closure(this.out1[state], set, marks, size);
+            }
+        }
+        if (inject) {
+            size = this.injectStart(start, set, marks, size);
+        }
+        int[] next = Arrays.copyOf(set, size);
+        Arrays.sort(next);
+        return next;
+    }
+
+    /**
+     * Add the initial state, without the MATCH state (an empty occurrence is not an occurrence).
+     *
+     * @param start     The initial state.
+     * @param set       The set.
+     * @param marks     The marks of the states already visited.
+     * @param size      The number of states in the set.
+     * @return          The new number of states in the set.
+     */
+    private int injectStart(int start, int[] set, boolean[] marks, int size) {
+        boolean matched = marks[0];
+        size = this.closure(start, set, marks, size);
+        if (!matched && marks[0]) {
+            // The MATCH state (index 0) has been added by the initial state : remove it.
+            for (int i = 0; i < size; i++) {
+                if (set[i] == 0) {
+                    set[i] = set[size - 1];
+                    size--;
+                    break;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Compute the initial set of states.
+     *
+     * @param start     The initial state.
+     * @param inject    If the MATCH state must be removed (for the automaton which can start at each character).
+     * @return          The initial set of states (sorted).
+     */
+    private int[] initial(int start, boolean inject) {
+        int[] set = new int[this.types.length];
+        boolean[] marks = new boolean[this.types.length];
+        int size = inject ? this.injectStart(start, set, marks, 0) : this.closure(start, set, marks, 0);
+        int[] result = Arrays.copyOf(set, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Deterministic automata of a thread.
+     *
+     * The tables are filled during the searches, so they are not shared : each thread
+     * keeps its own, and reuses them for its next searches with the same expression.
+     */
+    private class Automata {
+        private final LazyDFA reverse = new LazyDFA(reverseStart, true);  // Find the first characters (backward).
+        private final LazyDFA anchored = new LazyDFA(start, false);       // Find the longest occurrence from a position.
+        private boolean nfaFallback;    // If the table has been given up during the last search.
+    }
+
+    /**
+     * Deterministic automaton built during the search.
+     *
+     * Each state is a set of states of the non-deterministic automaton.
+     * The transitions are kept in a flat table (one line per state, one column per class),
+     * which grows with the states created, up to cacheSize lines.
+     */
+    private class LazyDFA {
+        private static final int INITIAL_ROWS = 16; // Lines of the table allocated first.
+
+        private int start;                          // Initial state of the non-deterministic automaton.
+        private boolean inject;                     // If an occurrence can start at each character.
+        private HashMap<String, Integer> index;     // State of each set.
+        private ArrayList<int[]> sets;              // Set of each state.
+        private boolean[] matches;                  // If the set contains the MATCH state.
+        private int[] transitions;                  // Table of transitions.
+        private int initialState;
+        private long resets;                        // Number of times the table has been cleared.
+        private long badResets;                     // Number of clears with too few characters scanned.
+        private long scanned;                       // Characters scanned since the last clear.
+
+        private LazyDFA(int start, boolean inject) {
+            this.start = start;
+            this.inject = inject;
+            int rows = Math.min(cacheSize, INITIAL_ROWS);
+            this.matches = new boolean[rows];
+            this.transitions = new int[rows * bounds.length];
+            this.reset();
+        }
+
+        /**
+         * Clear the table and add the initial state.
+         */
+        private void reset() {
+            this.index = new HashMap<String, Integer>();
+            this.sets = new ArrayList<int[]>();
+            Arrays.fill(this.transitions, UNKNOWN);
+            this.scanned = 0;
+            this.initialState = this.add(initial(this.start, this.inject));
+        }
+
+        /**
+         * Get the state of a set (a new state is created if needed).
+         *
+         * @param set   The set of states of the non-deterministic automaton.
+         * @return      The state (DEAD if the set is empty).
+         */
+        private int add(int[] set) {
+            if (set.length == 0) {
+                return DEAD;
+            }
+            String key = Arrays.toString(set);
+            Integer state = this.index.get(key);
+            if (state == null) {
+                state = this.sets.size();
+                if (state == this.matches.length) {
+                    // The table is full (but smaller than cacheSize) : twice more lines.
+                    int rows = Math.min(cacheSize, 2 * state);
+                    int used = this.transitions.length;
+                    this.matches = Arrays.copyOf(this.matches, rows);
+                    this.transitions = Arrays.copyOf(this.transitions, rows * bounds.length);
+                    Arrays.fill(this.transitions, used, this.transitions.length, UNKNOWN);
+                }
+                this.index.put(key, state);
+                this.sets.add(set);
+                this.matches[state] = set[0] == 0;  // MATCH is the state 0 and the set is sorted.
+            }
+            return state;
+        }
+
+        /**
+         * Get the next state.
+         *
+         * If the transition is not in the table, it is computed. If the table is full, it is cleared.
+         *
+         * @param state The current state.
+         * @param c     The class of the character read.
+         * @return      The next state.
+         */
+        private int next(int state, int c) {
+            int next = this.transitions[state * bounds.length + c];
+            if (next != UNKNOWN) {
+                return next;
+            }
+            int[] set = step(this.sets.get(state), c, this.start, this.inject);
+            if (this.sets.size() >= cacheSize && !this.index.containsKey(Arrays.toString(set))) {
+                // The table is full : clear it and continue with the new state only.
+                this.resets++;
+                if (this.scanned < (long) MIN_CHARS_PER_STATE * cacheSize) {
+                    this.badResets++;
+                }
+                this.reset();
+                return this.add(set);
+            }
+            next = this.add(set);
+            this.transitions[state * bounds.length + c] = next;
+            return next;
+        }
+
+        /**
+         * Check if the table is not efficient anymore.
+         *
+         * @return True if the non-deterministic automaton should be used instead.
+         */
+        private boolean thrashing() {
+            return this.badResets >= MAX_BAD_RESETS;
+        }
+    }
+
+    /**
+     * Find the first characters of all the occurrences, with the reversed automaton read backward.
+     *
+     * @param text      The text.
+     * @param from      The first position where an occurrence can start.
+     * @param automata  The deterministic automata of the thread.
+     * @return          The positions where an occurrence (not empty) starts.
+     */
+    private BitSet firstCharacters(CharSequence text, int from, Automata automata) {
+        LazyDFA reverse = automata.reverse;
+        BitSet firsts = new BitSet(text.length());
+        int state = reverse.initialState;
+        int i = text.length() - 1;
+        // With the table.
+        while (!automata.nfaFallback && i >= from) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                // An occurrence containing this end of line ends on it.
+                state = reverse.initialState;
+            }
+            state = reverse.next(state, this.classOf(c));
+            reverse.scanned++;
+            if (reverse.matches[state]) {
+                firsts.set(i);
+            }
+            if (reverse.thrashing()) {
+                automata.nfaFallback = true;
+            }
+            i--;
+        }
+        if (i < from) {
+            return firsts;
+        }
+        // Without the table : continue with the set of the current state.
+        int[] set = reverse.sets.get(state);
+        for (; i >= from; i--) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                set = this.initial(this.reverseStart, true);
+            }
+            set = this.step(set, this.classOf(c), this.reverseStart, true);
+            if (set.length > 0 && set[0] == 0) {
+                firsts.set(i);
+            }
+        }
+        return firsts;
+    }
+
+    /**
+     * Find the end of the longest occurrence starting at a position (at most the end of its line).
+     *
+     * @param text      The text.
+     * @param from      The position of the first character.
+     * @param automata  The deterministic automata of the thread.
+     * @return          The position of the last character of the occurrence, or -1 if there is none.
+     */
+    private int longestEnd(CharSequence text, int from, Automata automata) {
+        LazyDFA anchored = automata.anchored;
+        int length = text.length();
+        int end = -1;
+        if (automata.nfaFallback) {
+            int[] set = this.initial(this.start, false);
+            for (int i = from; i < length && set.length > 0; i++) {
+                char c = text.charAt(i);
+                set = this.step(set, this.classOf(c), this.start, false);
+                if (set.length > 0 && set[0] == 0) {
+                    end = i;
+                }
+                if (c == '\n') {
+                    break;
+                }
+            }
+            return end;
+        }
+        int state = anchored.initialState;
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            state = anchored.next(state, this.classOf(c));
+            anchored.scanned++;
+            if (state == DEAD) {
+                break;
+            }
+            if (anchored.matches[state]) {
+                end = i;
+            }
+            if (c == '\n') {
+                break;
+            }
+            if (anchored.thrashing()) {
+                automata.nfaFallback = true;
+                // Continue without the table.
+                int[] set = anchored.sets.get(state);
+                for (i++; i < length && set.length > 0; i++) {
+                    c = text.charAt(i);
+                    set = this.step(set, this.classOf(c), this.start, false);
+                    if (set.length > 0 && set[0] == 0) {
+                        end = i;
+                    }
+                    if (c == '\n') {
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Search the pattern into the file.
+     *
+     * The position of appearance is the first character which matches the pattern.
+     *
+     * @param pattern   The pattern to look for.
+     * @param filename  The file to look into.
+     * @return          An array containing the positions of appearances.
+     */
+    public ArrayList<Integer> search(String pattern, String filename) {
+        // Another pattern is searched with another instance (this one is not changed).
+        if (!pattern.equals(this.pattern)) {
+            return new Regex(pattern, this.cacheSize).search(pattern, filename);
+        }
+
+        // Load the file into a StringBuffer.
+        return this.searchText(Toolbox.load(filename));
+    }
+
+    /**
+     * Search the pattern into a text already loaded.
+     *
+     * @param text  The text to look into.
+     * @return      An array containing the positions of appearances.
+     */
+    @Override
+    public ArrayList<Integer> searchText(CharSequence text) {
+        MatchCollector output = new MatchCollector();
+        this.scan(text, text.length(), output);
+        return output.getPositions();
+    }
+
+    /**
+     * Search the occurrences starting before a limit.
+     *
+     * @param text      The text to look into.
+     * @param limit     The last position where an occurrence can start.
+     * @param output    The listener of the positions of appearances.
+     * @return          The position where the next search must start (the characters before
+     *                  are in an occurrence found, or can not be the start of an occurrence).
+     */
+    private int scan(CharSequence text, int limit, MatchListener output) {
+        long start = SearchStats.ENABLED ? System.nanoTime() : 0;
+        long verifications = 0;
+        Automata automata = this.automata.get();
+        automata.nfaFallback = false;
+        int position = 0;
+        if (this.minLength == 0 && this.maxLength == 0) {
+            return limit + 1;
+        }
+
+        // Positions of the literal string.
+        ArrayList<Integer> literals = null;
+        if (this.literalSearcher != null) {
+            literals = this.literalSearcher.searchText(text);
+        }
+        // With a bounded length, an occurrence starting at a position of the literal is found after at
+        // most maxLength characters. Else, the first characters are all found first, in one pass.
+        boolean candidates = this.literalPrefix && this.maxLength != -1;
+        BitSet firsts = new BitSet();
+        if (!candidates && (literals == null || !literals.isEmpty())) {
+            firsts = this.firstCharacters(text, this.literalPrefix ? literals.get(0) : 0, automata);
+        }
+        int nextLiteral = 0;
+
+        while (position < text.length()) {
+            int first;
+            if (candidates) {
+                // Skip the positions of the literal before the current position.
+                while (nextLiteral < literals.size() && literals.get(nextLiteral) < position) {
+                    nextLiteral++;
+                }
+                if (nextLiteral == literals.size()) {
+                    break;
+                }
+                first = literals.get(nextLiteral);
+            }
+            else {
+                first = firsts.nextSetBit(position);
+                if (first == -1) {
+                    break;
+                }
+            }
+            if (first > limit) {
+                break;
+            }
+            int end = this.longestEnd(text, first, automata);
+            if (SearchStats.ENABLED) {
+                verifications++;
+            }
+            if (end == -1) {
+                position = first + 1;
+                continue;
+            }
+            output.match(first);
+            position = end + 1;
+        }
+        if (SearchStats.ENABLED) {
+            STATS.addSearch(text.length(), System.nanoTime() - start, 0, verifications, 0);
+        }
+        return Math.max(position, limit + 1);
+    }
+
+    /**
+     * Create a cursor, to search the pattern into a text given by parts.
+     *
+     * If the length of the occurrences is bounded, the characters after the last occurrence found
+     * are kept, until an occurrence starting there can not be longer. Else, the text is searched
+     * line by line, as searchText does.
+     *
+     * @return A new cursor, at the beginning of the text.
+     */
+    @Override
+    public Cursor cursor() {
+        return new RegexCursor();
+    }
+
+    /**
+     * Cursor of the regular expression.
+     */
+    private class RegexCursor implements Cursor {
+        private static final int MAX_LINE = 1 << 20;        // Biggest line kept when the length is not bounded.
+
+        private StringBuilder pending = new StringBuilder();    // Characters not completely searched.
+        private long pendingStart = 0;                          // Position of the first pending character.
+
+        @Override
+        public void feed(CharSequence chunk, MatchListener output) {
+            this.pending.append(chunk);
+            if (maxLength != -1) {
+                // The occurrences starting before the limit can not be longer with the next part.
+                int limit = this.pending.length() - maxLength;
+                if (limit >= 0) {
+                    this.drop(scan(this.pending, limit, this.shifted(output)));
+                }
+            }
+            else {
+                int cut = this.pending.lastIndexOf("\n") + 1;
+                if (cut == 0 && this.pending.length() >= MAX_LINE) {
+                    cut = this.pending.length();
+                }
+                if (cut > 0) {
+                    scan(this.pending.subSequence(0, cut), cut, this.shifted(output));
+                    this.drop(cut);
+                }
+            }
+        }
+
+        @Override
+        public void end(MatchListener output) {
+            scan(this.pending, this.pending.length(), this.shifted(output));
+            this.drop(this.pending.length());
+        }
+
+        @Override
+        public long position() {
+            return this.pendingStart + this.pending.length();
+        }
+
+        @Override
+        public String save() {
+            return this.pendingStart + " " + this.pending;
+        }
+
+        @Override
+        public void restore(String state) {
+            String[] values = state.split(" ", 2);
+            if (values.length != 2) {
+                throw new IllegalArgumentException("Not a state of this pattern: " + state);
+            }
+            this.pendingStart = Long.parseLong(values[0]);
+            this.pending = new StringBuilder(values[1]);
+        }
+
+        /**
+         * Create a listener which adds the position of the pending characters.
+         *
+         * @param output    The listener of the positions in the whole text.
+         * @return          The listener of the positions in the pending characters.
+         */
+        private MatchListener shifted(final MatchListener output) {
+            final long start = this.pendingStart;
+            return new MatchListener() {
+                @Override
+                public void match(long position) {
+                    output.match(start + position);
+                }
+            };
+        }
+
+        /**
+         * Remove the first pending characters.
+         *
+         * @param count The number of characters to remove.
+         */
+        private void drop(int count) {
+            count = Math.min(count, this.pending.length());
+            this.pending.delete(0, count);
+            this.pendingStart += count;
+        }
+    }
+
+    /**
+     * Get the number of times the tables of the current thread have been cleared.
+     *
+     * @return The number of clears.
+     */
+    public long getCacheResets() {
+        Automata automata = this.automata.get();
+        return automata.reverse.resets + automata.anchored.resets;
+    }
+
+    /**
+     * Check if the last search of the current thread had to simulate the non-deterministic automaton.
+     *
+     * @return True if the table of states has been given up.
+     */
+    public boolean isNfaFallback() {
+        return this.automata.get().nfaFallback;
+    }
+
+    /**
+     * Print the state of the engine as wanted for the output :
+     * number of states of the non-deterministic automaton, number of classes of characters,
+     * and the literal string used to skip the text (if any).
+     */
+    public void printState() {
+        String s = this.types.length + " " + this.bounds.length;
+        if (this.literal != null) {
+            s += " " + this.literal;
+        }
+        System.out.println(s);
+    }
+
+    /**
+     * Method to print the content of the engine.
+     *
+     * @return The string representation.
+     */
+    @Override
+    public String toString() {
+        String s = "Pattern : " + this.pattern + "\n";
+        s += "Length : " + this.minLength + " to " + (this.maxLength == -1 ? "unbounded" : this.maxLength) + "\n";
+        s += "Literal : " + (this.literal == null ? "none" : this.literal + (this.literalPrefix ? " (prefix)" : "")) + "\n";
+        s += "States :\n";
+        for (int i = 0; i < this.types.length; i++) {
+            s += "|" + i + "|" + (this.types[i] == CHAR ? "char" : this.types[i] == SPLIT ? "split" : "match")
+                    + "|" + this.out1[i] + "|" + this.out2[i] + "|\n";
+        }
+        Automata automata = this.automata.get();
+        s += "Cached states : " + automata.reverse.sets.size() + " + " + automata.anchored.sets.size() + "\n";
+        return s;
+    }
+
+    public static void main(String[] args) {
+        String pattern = "ab(ab)*ac(a|b)";
+        String filename = "TestFile.txt";
+        Regex regex = new Regex(pattern);
+
+        System.out.println(regex);
+        System.out.println("Regex - Programme");
+        Toolbox.printOutput(regex.search(pattern, filename));
+        System.out.println();
+        System.out.println(regex);
+    }
+}
@@ -0,0 +1,319 @@
+package SearchPatterns;
+
+import Utilities.Toolbox;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class to find the substrings which are repeated in a text (without knowing them).
+ *
+ * The hash of Rabin-Karp (see RabinKarp) is computed for each substring of length L of the text
+ * (window), with a rolling hash : the first character of the window is removed from the hash and
+ * the next one is added. The windows are counted in a hash table of primitive arrays
+ * (open addressing), where two windows with the same hash are compared character by character,
+ * so a collision doesn't count two different substrings together.
+ *
+ * The modulo is bigger than in RabinKarp (2^31 - 1), since the hash is used to tell apart all the
+ * windows of the text, and not only to find one pattern.
+ *
+ * The longest substring repeated K times is found with a binary search on L : if a substring is
+ * repeated K times, its prefixes are too.
+ *
+ * The hashes of the windows are computed in parallel on parts of the text (each part starts
+ * with the hash of its first window).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class RepeatedSubstrings {
+
+    private static final int D = 256;                   // Base of the hash (as in RabinKarp).
+    private static final long Q = Integer.MAX_VALUE;    // Modulo of the hash (prime).
+    private static final int SEGMENT = 1 << 16;         // Minimal number of windows of a part hashed by a thread.
+
+    private final CharSequence text;
+    private final int threads;
+
+    /**
+     * Repeated substring : position of its first occurrence, and number of occurrences.
+     */
+    public static class Repeat {
+        private int position;
+        private int count;
+
+        private Repeat(int position, int count) {
+            this.position = position;
+            this.count = count;
+        }
+
+        public int getPosition() {
+            return this.position;
+        }
+
+        public int getCount() {
+            return this.count;
+        }
+
+        @Override
+        public String toString() {
+            return this.position + " " + this.count;
+        }
+    }
+
+    /**
+     * Constructor with a text.
+     *
+     * @param text The text to look into.
+     */
+    public RepeatedSubstrings(CharSequence text) {
+        this(text, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor with a text and the number of threads used to compute the hashes.
+     *
+     * @param text      The text to look into.
+     * @param threads   The number of threads.
+     */
+    public RepeatedSubstrings(CharSequence text, int threads) {
+        this.text = text;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Find the substrings of a length repeated at least count times.
+     *
+     * Overlapping occurrences are counted ("aa" is found 2 times in "aaa").
+     *
+     * @param length    The length of the substrings.
+     * @param count     The minimal number of occurrences.
+     * @return          The substrings (position of their first occurrence), in the order of the text.
+     */
+    public ArrayList<Repeat> find(int length, int count) {
+        ArrayList<Repeat> repeats = new ArrayList<Repeat>();
+        if (length <= 0 || length > this.text.length()) {
+            return repeats;
+        }
+        Table table = this.count(length, count, false);
+        // The entries are inserted at their first occurrence, so they are in the order of the text.
+        for (int i = 0; i < table.size; i++) {
+            if (table.counts[i] >= count) {
+                repeats.add(new Repeat(table.positions[i], table.counts[i]));
+            }
+        }
+        return repeats;
+    }
+
+    /**
+     * Find the longest substring repeated at least count times.
+     *
+     * @param count The minimal number of occurrences.
+     * @return      The substring (position of its first occurrence and its length), null if none.
+     */
+    public int[] longest(int count) {
+        int low = 0;                        // Length known to be repeated (0 : always).
+        int high = this.text.length();      // Length bigger may not be repeated.
+        int position = -1;
+        while (low < high) {
+            int middle = low + (high - low + 1) / 2;
+            Table table = this.count(middle, count, true);
+            if (table.found != -1) {
+                low = middle;
+                position = table.found;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+        return position == -1 ? null : new int[]{position, low};
+    }
+
+    /**
+     * Count the windows of a length.
+     *
+     * @param length    The length of the windows.
+     * @param count     The minimal number of occurrences.
+     * @param stop      If the count stops at the first substring repeated count times.
+     * @return          The table of the windows.
+     */
+    private Table count(int length, int count, boolean stop) {
+        int windows = this.text.length() - length + 1;
+        int[] hashes = this.hashes(length, windows);
+        Table table = new Table(windows);
+        for (int i = 0; i < windows; i++) {
+            int entry = table.add(hashes[i], i, length);
+            if (table.counts[entry] >= count && table.found == -1) {
+                table.found = table.positions[entry];
+                if (stop) {
+                    break;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Compute the hashes of all the windows (in parallel if the text is big).
+     *
+     * @param length    The length of the windows.
+     * @param windows   The number of windows.
+     * @return          The hash of each window.
+     */
+    private int[] hashes(final int length, int windows) {
+        final int[] hashes = new int[windows];
+        // Weight of the first character of a window.
+        long dm = 1;
+        for (int i = 1; i < length; i++) {
+            dm = (dm * D) % Q;
+        }
+        final long weight = dm;
+
+        int parts = (int) Math.min(this.threads, ((long) windows + SEGMENT - 1) / SEGMENT);
+        if (parts <= 1) {
+            this.hashes(hashes, 0, windows, length, weight);
+            return hashes;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parts);
+        try {
+            ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int p = 0; p < parts; p++) {
+                final int start = (int) ((long) windows * p / parts);
+                final int end = (int) ((long) windows * (p + 1) / parts);
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        hashes(hashes, start, end, length, weight);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> f : futures) {
+                f.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing the text.", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to hash the text.", e.getCause());
+        }
+        finally {
+            executor.shutdown();
+        }
+        return hashes;
+    }
+
+    /**
+     * Compute the hashes of a part of the windows, with a rolling hash.
+     *
+     * @param hashes    The hashes of all the windows.
+     * @param start     The first window of the part.
+     * @param end       The window after the part.
+     * @param length    The length of the windows.
+     * @param weight    The weight of the first character (D^(length-1) % Q).
+     */
+    private void hashes(int[] hashes, int start, int end, int length, long weight) {
+        CharSequence text = this.text;
+        long hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = (hash * D + text.charAt(i)) % Q;
+        }
+        hashes[start] = (int) hash;
+        for (int i = start + 1; i < end; i++) {
+            // Remove the first character of the previous window, and add the last one of this window.
+            hash = (hash + Q - (text.charAt(i - 1) * weight) % Q) % Q;
+            hash = (hash * D + text.charAt(i + length - 1)) % Q;
+            hashes[i] = (int) hash;
+        }
+    }
+
+    /**
+     * Hash table of the windows (open addressing, linear probing).
+     *
+     * Each different substring has an entry : its hash, the position of its first occurrence and
+     * its number of occurrences. The entries are also kept in the order of insertion.
+     */
+    private class Table {
+        private int[] slots;        // Index of the entry in each slot (-1 if empty).
+        private int[] keys;         // Hash of each entry.
+        private int[] positions;    // First occurrence of each entry.
+        private int[] counts;       // Occurrences of each entry.
+        private int size = 0;       // Number of entries.
+        private int found = -1;     // First occurrence of the first substring repeated count times (-1 if none).
+
+        private Table(int windows) {
+            int capacity = Integer.highestOneBit(Math.max(2, windows)) * 4;    // Less than half full.
+            this.slots = new int[capacity];
+            for (int i = 0; i < capacity; i++) {
+                this.slots[i] = -1;
+            }
+            this.keys = new int[windows];
+            this.positions = new int[windows];
+            this.counts = new int[windows];
+        }
+
+        /**
+         * Add a window.
+         *
+         * @param hash      The hash of the window.
+         * @param position  The position of the window.
+         * @param length    The length of the windows.
+         * @return          The entry of the substring of the window.
+         */
+        private int add(int hash, int position, int length) {
+            int mask = this.slots.length - 1;
+            int slot = (hash * 0x9E3779B9) >>> 1 & mask;
+            while (this.slots[slot] != -1) {
+                int entry = this.slots[slot];
+                if (this.keys[entry] == hash && same(this.positions[entry], position, length)) {
+                    this.counts[entry]++;
+                    return entry;
+                }
+                slot = (slot + 1) & mask;
+            }
+            this.slots[slot] = this.size;
+            this.keys[this.size] = hash;
+            this.positions[this.size] = position;
+            this.counts[this.size] = 1;
+            return this.size++;
+        }
+    }
+
+    /**
+     * Compare two windows (to check that the same hash is the same substring).
+     *
+     * @param a         The position of the first window.
+     * @param b         The position of the second window.
+     * @param length    The length of the windows.
+     * @return          True if the windows contain the same characters.
+     */
+    private boolean same(int a, int b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (this.text.charAt(a + i) != this.text.charAt(b + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) {
+        CharSequence text = Toolbox.load("TestFile.txt");
+        RepeatedSubstrings repeated = new RepeatedSubstrings(text);
+        // Sous-chaines de 7 caracteres presentes au moins 3 fois.
+        for (Repeat r : repeated.find(7, 3)) {
+            System.out.println(r + " " + text.subSequence(r.getPosition(), r.getPosition() + 7));
+        }
+        // Plus longue sous-chaine presente au moins 2 fois.
+        int[] longest = repeated.longest(2);
+        if (longest != null) {
+            System.out.println(longest[1] + " " + text.subSequence(longest[0], longest[0] + longest[1]));
+        }
+    }
+}
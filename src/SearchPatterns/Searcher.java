@@ -0,0 +1,31 @@
+package SearchPatterns;
+
+import java.util.ArrayList;
+
+/**
+ * Interface implemented by all the search patterns.
+ *
+ * A search can be done on a text already loaded, or with a cursor, when the text
+ * arrives by parts (a stream, a pipe...).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public interface Searcher {
+
+    /**
+     * Search the pattern into a text already loaded.
+     *
+     * @param text  The text to look into.
+     * @return      An array containing the positions of appearances.
+     */
+    ArrayList<Integer> searchText(CharSequence text);
+
+    /**
+     * Create a cursor, to search the pattern into a text given by parts.
+     *
+     * @return A new cursor, at the beginning of the text.
+     */
+    Cursor cursor();
+}
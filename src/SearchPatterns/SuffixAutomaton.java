@@ -0,0 +1,442 @@
+package SearchPatterns;
+
+import Utilities.Toolbox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Class to implement the suffix automaton (DAWG) of a text.
+ *
+ * The automaton of FSM recognizes one pattern. The suffix automaton recognizes all the substrings
+ * of the text : a state is a set of substrings which end at the same positions of the text.
+ * Each state has a link (suffix link) to the state of its longest suffix ending at more positions.
+ *
+ * The automaton is built online, one character after the other (Blumer et al.), in a time and a
+ * memory linear in the length of the text (at most 2n states and 3n transitions). Text can be
+ * added at any time.
+ *
+ * Once built, a pattern of length m is found in O(m) by following the transitions, and gives :
+ *
+ *      - the number of occurrences (count),
+ *      - the first and the last occurrence (first, last),
+ *      - all the occurrences (search), in O(m + number of occurrences).
+ *
+ * The transitions are kept in arrays of primitives : a list of transitions per state, and a hash table
+ * (open addressing) on the state and the character to follow a transition in constant time.
+ *
+ * The number of occurrences and the last occurrence are computed on the tree of the suffix links, only when
+ * a query needs them after text has been added.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class SuffixAutomaton {
+
+    private static final int CAPACITY = 16;     // Initial number of states.
+
+    private int length = 0;         // Number of characters of the text.
+    private int last = 0;           // State of the whole text.
+
+    // States.
+    private int states = 1;         // Number of states (the state 0 is the empty string).
+    private int[] len;              // Length of the longest substring of each state.
+    private int[] link;             // Suffix link of each state (-1 for the state 0).
+    private int[] firstEnd;         // End (last character) of the first occurrence of each state.
+    private boolean[] cloned;       // True if the state has been cloned (it doesn't add an end position).
+    private int[] head;             // First transition of each state (-1 if none).
+
+    // Transitions.
+    private int transitions = 0;    // Number of transitions.
+    private int[] from;             // Source state of each transition.
+    private char[] label;           // Character of each transition.
+    private int[] target;           // Destination state of each transition.
+    private int[] next;             // Next transition of the same state (-1 if none).
+    private int[] slots;            // Hash table (state, character) -> transition (-1 if empty).
+
+    // Computed on demand (null when text has been added since).
+    private int[] counts;           // Number of end positions of each state.
+    private int[] lastEnd;          // End of the last occurrence of each state.
+    private int[] children;         // Children of each state in the tree of the suffix links (by first child).
+    private int[] sibling;          // Next child of the same parent.
+
+    /**
+     * Default constructor (empty text).
+     */
+    public SuffixAutomaton() {
+        this.len = new int[CAPACITY];
+        this.link = new int[CAPACITY];
+        this.firstEnd = new int[CAPACITY];
+        this.cloned = new boolean[CAPACITY];
+        this.head = new int[CAPACITY];
+        this.from = new int[CAPACITY];
+        this.label = new char[CAPACITY];
+        this.target = new int[CAPACITY];
+        this.next = new int[CAPACITY];
+        this.slots = new int[CAPACITY * 2];
+        Arrays.fill(this.slots, -1);
+        this.link[0] = -1;
+        this.firstEnd[0] = -1;
+        this.head[0] = -1;
+    }
+
+    /**
+     * Constructor with a text.
+     *
+     * @param text The text to build the automaton of.
+     */
+    public SuffixAutomaton(CharSequence text) {
+        this();
+        this.append(text);
+    }
+
+    /**
+     * Add characters at the end of the text.
+     *
+     * @param text The characters.
+     */
+    public void append(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            this.append(text.charAt(i));
+        }
+    }
+
+    /**
+     * Add a character at the end of the text.
+     *
+     * @param c The character.
+     */
+    public void append(char c) {
+        int current = this.newState(this.len[this.last] + 1, this.length, false);
+        int p = this.last;
+        // All the suffixes without a transition with c get one to the new state.
+        while (p != -1 && this.find(p, c) == -1) {
+            this.addTransition(p, c, current);
+            p = this.link[p];
+        }
+        if (p == -1) {
+            this.link[current] = 0;
+        }
+        else {
+            int t = this.find(p, c);
+            int q = this.target[t];
+            if (this.len[p] + 1 == this.len[q]) {
+                this.link[current] = q;
+            }
+            else {
+                // The state q contains longer substrings which don't end here : it is split.
+                int clone = this.newState(this.len[p] + 1, this.firstEnd[q], true);
+                for (int e = this.head[q]; e != -1; e = this.next[e]) {
+                    this.addTransition(clone, this.label[e], this.target[e]);
+                }
+                this.link[clone] = this.link[q];
+                while (p != -1 && t != -1 && this.target[t] == q) {
+                    this.target[t] = clone;
+                    p = this.link[p];
+                    t = p == -1 ? -1 : this.find(p, c);
+                }
+                this.link[q] = clone;
+                this.link[current] = clone;
+            }
+        }
+        this.last = current;
+        this.length++;
+        this.counts = null;
+    }
+
+    /**
+     * @return The number of characters of the text.
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * @return The number of states of the automaton.
+     */
+    public int states() {
+        return this.states;
+    }
+
+    /**
+     * @return The number of transitions of the automaton.
+     */
+    public int transitions() {
+        return this.transitions;
+    }
+
+    /**
+     * Check if a pattern is in the text.
+     *
+     * @param pattern   The pattern.
+     * @return          True if the pattern is a substring of the text.
+     */
+    public boolean contains(CharSequence pattern) {
+        return this.state(pattern) != -1;
+    }
+
+    /**
+     * Count the occurrences of a pattern (overlapping occurrences are counted).
+     *
+     * @param pattern   The pattern.
+     * @return          The number of occurrences.
+     */
+    public int count(CharSequence pattern) {
+        int state = this.state(pattern);
+        if (state == -1) {
+            return 0;
+        }
+        this.compute();
+        return this.counts[state];
+    }
+
+    /**
+     * Find the first occurrence of a pattern.
+     *
+     * @param pattern   The pattern.
+     * @return          The position of its first letter in the text (-1 if not found).
+     */
+    public int first(CharSequence pattern) {
+        int state = this.state(pattern);
+        return state == -1 ? -1 : this.firstEnd[state] - pattern.length() + 1;
+    }
+
+    /**
+     * Find the last occurrence of a pattern.
+     *
+     * @param pattern   The pattern.
+     * @return          The position of its first letter in the text (-1 if not found).
+     */
+    public int last(CharSequence pattern) {
+        int state = this.state(pattern);
+        if (state == -1) {
+            return -1;
+        }
+        this.compute();
+        return this.lastEnd[state] - pattern.length() + 1;
+    }
+
+    /**
+     * Find all the occurrences of a pattern.
+     *
+     * The end positions of a state are the first ends of the states (not cloned) below it in the tree of the suffix links.
+     *
+     * @param pattern   The pattern.
+     * @return          The positions of its first letter in the text, in increasing order.
+     */
+    public ArrayList<Integer> search(CharSequence pattern) {
+        ArrayList<Integer> output = new ArrayList<Integer>();
+        int state = this.state(pattern);
+        if (state == -1) {
+            return output;
+        }
+        this.compute();
+        // Depth-first search without recursion (the tree can be as deep as the text).
+        int[] stack = new int[this.counts[state] * 2 + 1];
+        int top = 0;
+        stack[top++] = state;
+        while (top > 0) {
+            int s = stack[--top];
+            if (!this.cloned[s]) {
+                output.add(this.firstEnd[s] - pattern.length() + 1);
+            }
+            for (int child = this.children[s]; child != -1; child = this.sibling[child]) {
+                stack[top++] = child;
+            }
+        }
+        Collections.sort(output);
+        return output;
+    }
+
+    /**
+     * Follow the transitions of a pattern from the state 0.
+     *
+     * @param pattern   The pattern.
+     * @return          The state reached (-1 if the pattern is not in the text or is empty).
+     */
+    private int state(CharSequence pattern) {
+        if (pattern.length() == 0) {
+            return -1;
+        }
+        int state = 0;
+        for (int i = 0; i < pattern.length() && state != -1; i++) {
+            int t = this.find(state, pattern.charAt(i));
+            state = t == -1 ? -1 : this.target[t];
+        }
+        return state;
+    }
+
+    /**
+     * Compute the number of end positions and the last end of each state, and the tree of the
+     * suffix links (only if text has been added since the last time).
+     *
+     * The states are sorted by length (counting sort) : a state is after its suffix link, so going
+     * backward adds each state to its suffix link after all its children.
+     */
+    private void compute() {
+        if (this.counts != null) {
+            return;
+        }
+        int n = this.states;
+        int[] counts = new int[n];
+        int[] lastEnd = new int[n];
+        int[] children = new int[n];
+        int[] sibling = new int[n];
+        Arrays.fill(children, -1);
+
+        int[] bucket = new int[this.length + 2];
+        for (int s = 0; s < n; s++) {
+            bucket[this.len[s] + 1]++;
+        }
+        for (int i = 1; i < bucket.length; i++) {
+            bucket[i] += bucket[i - 1];
+        }
+        int[] order = new int[n];
+        for (int s = 0; s < n; s++) {
+            order[bucket[this.len[s]]++] = s;
+        }
+
+        for (int s = 0; s < n; s++) {
+            counts[s] = this.cloned[s] || s == 0 ? 0 : 1;
+            lastEnd[s] = this.firstEnd[s];
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int s = order[i];
+            int parent = this.link[s];
+            counts[parent] += counts[s];
+            lastEnd[parent] = Math.max(lastEnd[parent], lastEnd[s]);
+            sibling[s] = children[parent];
+            children[parent] = s;
+        }
+        this.lastEnd = lastEnd;
+        this.children = children;
+        this.sibling = sibling;
+        this.counts = counts;
+    }
+
+    /**
+     * Create a state.
+     *
+     * @param len       The length of its longest substring.
+     * @param firstEnd  The end of its first occurrence.
+     * @param cloned    True if it is a clone.
+     * @return          The state.
+     */
+    private int newState(int len, int firstEnd, boolean cloned) {
+        if (this.states == this.len.length) {
+            int capacity = this.states * 2;
+            this.len = Arrays.copyOf(this.len, capacity);
+            this.link = Arrays.copyOf(this.link, capacity);
+            this.firstEnd = Arrays.copyOf(this.firstEnd, capacity);
+            this.cloned = Arrays.copyOf(this.cloned, capacity);
+            this.head = Arrays.copyOf(this.head, capacity);
+        }
+        int state = this.states++;
+        this.len[state] = len;
+        this.link[state] = -1;
+        this.firstEnd[state] = firstEnd;
+        this.cloned[state] = cloned;
+        this.head[state] = -1;
+        return state;
+    }
+
+    /**
+     * Add a transition.
+     *
+     * @param state         The source state.
+     * @param c             The character.
+     * @param destination   The destination state.
+     */
+    private void addTransition(int state, char c, int destination) {
+        if (this.transitions == this.target.length) {
+            int capacity = this.transitions * 2;
+            this.from = Arrays.copyOf(this.from, capacity);
+            this.label = Arrays.copyOf(this.label, capacity);
+            this.target = Arrays.copyOf(this.target, capacity);
+            this.next = Arrays.copyOf(this.next, capacity);
+        }
+        int t = this.transitions++;
+        this.from[t] = state;
+        this.label[t] = c;
+        this.target[t] = destination;
+        this.next[t] = this.head[state];
+        this.head[state] = t;
+        // The hash table stays less than half full.
+        if (this.transitions * 2 > this.slots.length) {
+            this.slots = new int[this.slots.length * 2];
+            Arrays.fill(this.slots, -1);
+            for (int e = 0; e < this.transitions; e++) {
+                this.insert(e);
+            }
+        }
+        else {
+            this.insert(t);
+        }
+    }
+
+    /**
+     * Put a transition in the hash table.
+     *
+     * @param t The transition.
+     */
+    private void insert(int t) {
+        int mask = this.slots.length - 1;
+        int slot = hash(this.from[t], this.label[t]) & mask;
+        while (this.slots[slot] != -1) {
+            slot = (slot + 1) & mask;
+        }
+        this.slots[slot] = t;
+    }
+
+    /**
+     * Find the transition of a state with a character.
+     *
+     * @param state The state.
+     * @param c     The character.
+     * @return      The transition (-1 if none).
+     */
+    private int find(int state, char c) {
+        int mask = this.slots.length - 1;
+        int slot = hash(state, c) & mask;
+        int t;
+        while ((t = this.slots[slot]) != -1) {
+            if (this.from[t] == state && this.label[t] == c) {
+                return t;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Hash of a state and a character.
+     *
+     * @param state The state.
+     * @param c     The character.
+     * @return      The hash (not reduced to the size of the table).
+     */
+    private static int hash(int state, char c) {
+        int h = (state * 65599 + c) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Print the number of characters, states and transitions.
+     */
+    public void printState() {
+        System.out.println(this.length);
+        System.out.println(this.states);
+        System.out.println(this.transitions);
+    }
+
+    public static void main(String[] args) {
+        SuffixAutomaton automaton = new SuffixAutomaton("abcbcabc");
+        automaton.printState();
+        // Le texte peut etre complete, les requetes suivantes en tiennent compte.
+        automaton.append("bc");
+        System.out.println(automaton.count("bc") + " " + automaton.first("bc") + " " + automaton.last("bc"));
+        Toolbox.printOutput(automaton.search("bc"));
+    }
+}
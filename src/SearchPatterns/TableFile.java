@@ -0,0 +1,309 @@
+package SearchPatterns;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class to save the tables of a search pattern (already computed) into a file, and to load them
+ * without computing them again.
+ *
+ * The file is read with a memory map, so loading the tables only copies them (nothing is computed).
+ * The tables of the automata (see TransitionTable) are not even copied, they are used from the memory map.
+ *
+ * Format of the file (big-endian) :
+ *
+ *      - Header : "SPTB" (magic number), version of the format, number of the algorithm (as in Main),
+ *        length of the pattern and its characters.
+ *
+ *      - Tables of the search pattern, written by its method writeTables (arrays : length then values,
+ *        automata : number of states and columns, size of a state, then the states).
+ *
+ * The regular expressions (Regex) can not be saved : their automaton is built during the search.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class TableFile {
+
+    public static final int MAGIC = 0x53505442;     // "SPTB"
+    public static final int VERSION = 4;     // 4 : reversed automaton of WildcardFSM instead of its elements.
+
+    /**
+     * Save the tables of a search pattern.
+     *
+     * @param searcher  The search pattern.
+     * @param filename  The file to write.
+     * @throws IOException If the file can not be written.
+     * @throws IllegalArgumentException If the tables of this search pattern can not be saved.
+     */
+    public static void save(Searcher searcher, String filename) throws IOException {
+        int algo;
+        String pattern;
+        if (searcher instanceof RabinKarp) {
+            algo = 1;
+            pattern = ((RabinKarp) searcher).getPattern();
+        }
+        else if (searcher instanceof FSM) {
+            algo = 2;
+            pattern = ((FSM) searcher).getPattern();
+        }
+        else if (searcher instanceof KMP) {
+            algo = 3;
+            pattern = ((KMP) searcher).getPattern();
+        }
+        else if (searcher instanceof BoyerMoore) {
+            algo = 4;
+            pattern = ((BoyerMoore) searcher).getPattern();
+        }
+        else if (searcher instanceof WildcardFSM) {
+            algo = 5;
+            pattern = ((WildcardFSM) searcher).getPattern();
+        }
+        else if (searcher instanceof TwoWay) {
+            algo = 7;
+            pattern = ((TwoWay) searcher).getPattern();
+        }
+        else {
+            throw new IllegalArgumentException("The tables of this search pattern can not be saved.");
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(algo);
+            writeChars(out, pattern);
+            switch (algo) {
+                case 1:
+                    ((RabinKarp) searcher).writeTables(out);
+                    break;
+                case 2:
+                    ((FSM) searcher).writeTables(out);
+                    break;
+                case 3:
+                    ((KMP) searcher).writeTables(out);
+                    break;
+                case 4:
+                    ((BoyerMoore) searcher).writeTables(out);
+                    break;
+                case 5:
+                    ((WildcardFSM) searcher).writeTables(out);
+                    break;
+                default:
+                    ((TwoWay) searcher).writeTables(out);
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Load a search pattern from its tables.
+     *
+     * @param filename  The file to read.
+     * @return          The search pattern, ready to search.
+     * @throws IOException If the file can not be read, or is not a file of tables of this version.
+     */
+    public static Searcher load(String filename) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        ByteBuffer tables;
+        try {
+            tables = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        finally {
+            channel.close();
+        }
+        try {
+            if (tables.getInt() != MAGIC) {
+                throw new IOException("Not a file of tables: " + filename);
+            }
+            int version = tables.getInt();
+            if (version != VERSION) {
+                throw new IOException("Version " + version + " of the tables not supported: " + filename);
+            }
+            int algo = tables.getInt();
+            String pattern = readChars(tables);
+            try {
+                switch (algo) {
+                    case 1:
+                        return new RabinKarp(pattern, tables);
+                    case 2:
+                        return new FSM(pattern, tables);
+                    case 3:
+                        return new KMP(pattern, tables);
+                    case 4:
+                        return new BoyerMoore(pattern, tables);
+                    case 5:
+                        return new WildcardFSM(pattern, tables);
+                    case 7:
+                        return new TwoWay(pattern, tables);
+                }
+            }
+            catch (IOException e) {
+                // Tables which don't match the pattern.
+                throw new IOException(e.getMessage() + ": " + filename, e);
+            }
+            throw new IOException("Algorithm " + algo + " not supported: " + filename);
+        }
+        catch (BufferUnderflowException e) {
+            throw new IOException("Truncated file of tables: " + filename, e);
+        }
+    }
+
+    /**
+     * Print the tables of a search pattern, as Main does when there is no text.
+     *
+     * @param searcher The search pattern.
+     */
+    public static void printState(Searcher searcher) {
+        if (searcher instanceof RabinKarp) {
+            ((RabinKarp) searcher).printState();
+        }
+        else if (searcher instanceof FSM) {
+            ((FSM) searcher).printState();
+        }
+        else if (searcher instanceof KMP) {
+            ((KMP) searcher).printOverlap();
+        }
+        else if (searcher instanceof BoyerMoore) {
+            ((BoyerMoore) searcher).printCharTable();
+            ((BoyerMoore) searcher).printSuffixTable();
+        }
+        else if (searcher instanceof WildcardFSM) {
+            ((WildcardFSM) searcher).printState();
+        }
+        else if (searcher instanceof TwoWay) {
+            ((TwoWay) searcher).printState();
+        }
+        else if (searcher instanceof Regex) {
+            ((Regex) searcher).printState();
+        }
+    }
+
+    /**
+     * Write characters (length then characters).
+     */
+    static void writeChars(DataOutputStream out, CharSequence chars) throws IOException {
+        out.writeInt(chars.length());
+        for (int i = 0; i < chars.length(); i++) {
+            out.writeChar(chars.charAt(i));
+        }
+    }
+
+    /**
+     * Read characters written by writeChars.
+     */
+    static String readChars(ByteBuffer in) {
+        char[] chars = new char[checkLength(in, in.getInt(), 2)];
+        in.asCharBuffer().get(chars);
+        in.position(in.position() + 2 * chars.length);
+        return new String(chars);
+    }
+
+    /**
+     * Write an array (length then values).
+     */
+    static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int v : values) {
+            out.writeInt(v);
+        }
+    }
+
+    /**
+     * Read an array written by writeInts.
+     */
+    static int[] readInts(ByteBuffer in) {
+        int[] values = new int[checkLength(in, in.getInt(), 4)];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + 4 * values.length);
+        return values;
+    }
+
+    /**
+     * Write booleans (length then one byte per value).
+     */
+    static void writeBooleans(DataOutputStream out, boolean[] values) throws IOException {
+        out.writeInt(values.length);
+        for (boolean v : values) {
+            out.writeBoolean(v);
+        }
+    }
+
+    /**
+     * Read booleans written by writeBooleans.
+     */
+    static boolean[] readBooleans(ByteBuffer in) {
+        boolean[] values = new boolean[checkLength(in, in.getInt(), 1)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.get() != 0;
+        }
+        return values;
+    }
+
+    /**
+     * Check a value of the tables read, against the pattern.
+     *
+     * @param valid If the value is valid.
+     * @param what  The value (for the message).
+     * @throws IOException If the value is not valid (the tables are corrupted, or not the tables of the pattern).
+     */
+    static void check(boolean valid, String what) throws IOException {
+        if (!valid) {
+            throw new IOException("Invalid tables (" + what + ")");
+        }
+    }
+
+    /**
+     * Check the size of an automaton read, and that its transitions go to its states.
+     *
+     * @param table     The automaton.
+     * @param rows      The number of states expected.
+     * @param columns   The number of columns expected.
+     * @param states    The number of states the transitions can go to.
+     * @param what      The automaton (for the message).
+     * @throws IOException If the automaton is not valid.
+     */
+    static void checkStates(TransitionTable table, int rows, int columns, int states, String what)
+            throws IOException {
+        check(table.rows() == rows && table.columns() == columns, what + " size");
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                int next = table.get(i, j);
+                check(next >= 0 && next < states, what + " state");
+            }
+        }
+    }
+
+    /**
+     * Check that a length read is possible (not negative, and not after the end of the file).
+     *
+     * @param in        The tables.
+     * @param length    The number of values.
+     * @param size      The size of a value in bytes.
+     * @return          The length.
+     */
+    private static int checkLength(ByteBuffer in, int length, int size) {
+        if (length < 0 || (long) length * size > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filename = "ANPANMAN.sptb";
+        save(new BoyerMoore("ANPANMAN"), filename);
+        Searcher bm = load(filename);
+        printState(bm);
+        System.out.println(bm.searchText("ANPANMAN ANPANMAN"));
+    }
+}
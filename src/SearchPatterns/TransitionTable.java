@@ -0,0 +1,168 @@
+package SearchPatterns;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Table of the transitions of an automaton (next state for each state and each column).
+ *
+ * The table is stored in one block of memory out of the heap (direct buffer), row after row,
+ * instead of one array per state (int[][]) :
+ *
+ *      - The garbage collector has only one object to look at, whatever the number of states.
+ *
+ *      - The states of a row are next to each other in memory.
+ *
+ *      - A state takes 2 bytes if there are less than 65536 states (else 4 bytes).
+ *
+ * The table saved in a file (see TableFile) is used directly from the memory map of the file,
+ * it is not copied.
+ *
+ * The table can contain at most 2^31 bytes.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+class TransitionTable {
+
+    private int rows;           // Number of states.
+    private int columns;        // Number of columns.
+    private CharBuffer narrow;  // States of 2 bytes (null if wide).
+    private IntBuffer wide;     // States of 4 bytes (null if narrow).
+
+    /**
+     * Constructor of an empty table (all transitions to state 0).
+     *
+     * @param rows      The number of states.
+     * @param columns   The number of columns.
+     */
+    TransitionTable(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        boolean wide = rows > Character.MAX_VALUE + 1;
+        long bytes = (long) rows * columns * (wide ? 4 : 2);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The automaton is too big: " + rows + " states.");
+        }
+        this.view(ByteBuffer.allocateDirect((int) bytes), wide);
+    }
+
+    /**
+     * Constructor with a table.
+     *
+     * @param values The next state for each state (row) and each column (all the rows have the same length).
+     */
+    TransitionTable(int[][] values) {
+        this(values.length, values.length == 0 ? 0 : values[0].length);
+        for (int i = 0; i < this.rows; i++) {
+            for (int j = 0; j < this.columns; j++) {
+                this.set(i, j, values[i][j]);
+            }
+        }
+    }
+
+    /**
+     * Constructor with the table saved in a file, written by write (the table is not copied).
+     *
+     * @param tables The file, at the position of the table (the position is moved after the table).
+     */
+    TransitionTable(ByteBuffer tables) {
+        this.rows = tables.getInt();
+        this.columns = tables.getInt();
+        boolean wide = tables.get() != 0;
+        long bytes = (long) this.rows * this.columns * (wide ? 4 : 2);
+        if (this.rows < 0 || this.columns < 0 || bytes > tables.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        ByteBuffer block = tables.slice();
+        block.limit((int) bytes);
+        tables.position(tables.position() + (int) bytes);
+        this.view(block, wide);
+    }
+
+    /**
+     * Use a block of memory as the table.
+     *
+     * @param block The block (big-endian).
+     * @param wide  If the states take 4 bytes.
+     */
+    private void view(ByteBuffer block, boolean wide) {
+        if (wide) {
+            this.wide = block.asIntBuffer();
+        }
+        else {
+            this.narrow = block.asCharBuffer();
+        }
+    }
+
+    /**
+     * Get the next state.
+     *
+     * @param state     The current state.
+     * @param column    The column of the character.
+     * @return          The next state.
+     */
+    int get(int state, int column) {
+        int i = state * this.columns + column;
+        return this.narrow != null ? this.narrow.get(i) : this.wide.get(i);
+    }
+
+    /**
+     * Set the next state.
+     *
+     * @param state     The current state.
+     * @param column    The column of the character.
+     * @param next      The next state.
+     */
+    void set(int state, int column, int next) {
+        int i = state * this.columns + column;
+        if (this.narrow != null) {
+            this.narrow.put(i, (char) next);
+        }
+        else {
+            this.wide.put(i, next);
+        }
+    }
+
+    /**
+     * @return The number of states.
+     */
+    int rows() {
+        return this.rows;
+    }
+
+    /**
+     * @return The number of columns.
+     */
+    int columns() {
+        return this.columns;
+    }
+
+    /**
+     * Write the table (number of states and columns, size of a state, then the states), to load it
+     * with the constructor.
+     *
+     * @param out   The file.
+     * @throws IOException If the file can not be written.
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(this.rows);
+        out.writeInt(this.columns);
+        out.writeBoolean(this.wide != null);
+        for (int i = 0; i < this.rows; i++) {
+            for (int j = 0; j < this.columns; j++) {
+                if (this.narrow != null) {
+                    out.writeChar(this.get(i, j));
+                }
+                else {
+                    out.writeInt(this.get(i, j));
+                }
+            }
+        }
+    }
+}
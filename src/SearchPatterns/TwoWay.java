@@ -0,0 +1,285 @@
+package SearchPatterns;
+
+import Utilities.SearchStats;
+import Utilities.Toolbox;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Class to implement the Two-Way algorithm (Crochemore-Perrin).
+ *
+ * The pattern is cut in two parts at a critical position : pattern = left + right.
+ * The critical position is found with the maximal suffix of the pattern, computed for
+ * the two orders of the alphabet (the biggest position is kept).
+ *
+ * For each position of the text, the right part is compared from left to right.
+ * If a character doesn't match, the pattern is shifted after this character.
+ * Then, the left part is compared from right to left. If it doesn't match, the pattern
+ * is shifted by its period.
+ *
+ * If the pattern is periodic (the left part is found again one period later), the characters
+ * already compared during the last shift are remembered (memory), so none is compared twice.
+ *
+ * Only two numbers are kept for a pattern (the critical position and the period), so the
+ * memory used doesn't depend on the pattern or on the alphabet, and the search is linear.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class TwoWay implements Searcher {
+    // Counters (only when enabled).
+    private static final SearchStats STATS = SearchStats.ENABLED ? SearchStats.get("TwoWay") : null;
+
+    // Never changed after the constructor : an instance can be shared by threads.
+    private final String pattern;
+    private final int critical;         // Position of the last character of the left part (-1 if empty).
+    private final int period;           // Period of the pattern (or shift used when not periodic).
+    private final boolean periodic;     // If the left part is found again one period later.
+
+    /**
+     * Constructor with a pattern.
+     *
+     * Compute the critical position and the period.
+     *
+     * @param pattern The pattern to load.
+     */
+    public TwoWay(String pattern) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("The pattern must contain at least one character.");
+        }
+        this.pattern = pattern;
+
+        // Maximal suffix for the two orders of the alphabet.
+        int[] normal = maximalSuffix(pattern, false);
+        int[] reversed = maximalSuffix(pattern, true);
+        int[] maximal = normal[0] > reversed[0] ? normal : reversed;
+        this.critical = maximal[0];
+
+        // Check if the left part is found again one period later.
+        this.periodic = this.critical + 1 + maximal[1] <= pattern.length()
+                && pattern.regionMatches(0, pattern, maximal[1], this.critical + 1);
+        if (this.periodic) {
+            this.period = maximal[1];
+        }
+        else {
+            // The period is not used, the shift after a complete comparison is bigger.
+            this.period = Math.max(this.critical + 1, pattern.length() - this.critical - 1) + 1;
+        }
+    }
+
+    /**
+     * Constructor with the tables saved in a file (see TableFile).
+     *
+     * @param pattern   The pattern.
+     * @param tables    The critical position, the period and if the pattern is periodic.
+     * @throws IOException If the critical position or the period is not possible for the pattern.
+     */
+    TwoWay(String pattern, ByteBuffer tables) throws IOException {
+        this.pattern = pattern;
+        this.critical = tables.getInt();
+        this.period = tables.getInt();
+        this.periodic = tables.get() != 0;
+        int m = pattern.length();
+        TableFile.check(m > 0 && this.critical >= -1 && this.critical < m, "critical position");
+        if (this.periodic) {
+            // The left part is found again one period later.
+            TableFile.check(this.period >= 1 && this.critical + 1 + this.period <= m
+                    && pattern.regionMatches(0, pattern, this.period, this.critical + 1), "period");
+        }
+        else {
+            TableFile.check(this.period == Math.max(this.critical + 1, m - this.critical - 1) + 1, "period");
+        }
+    }
+
+    /**
+     * Write the critical position and the period, to load them with the constructor.
+     *
+     * @param out   The file.
+     * @throws IOException If the file can not be written.
+     */
+    void writeTables(DataOutputStream out) throws IOException {
+        out.writeInt(this.critical);
+        out.writeInt(this.period);
+        out.writeBoolean(this.periodic);
+    }
+
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    /**
+     * Compute the maximal suffix of the pattern.
+     *
+     * The maximal suffix is the biggest suffix (in the lexical order). It is computed by comparing
+     * the current candidate (starting after suffix) with the suffix starting at j.
+     *
+     * @param pattern   The pattern.
+     * @param reversed  If the order of the alphabet is reversed.
+     * @return          The position before the maximal suffix and its period.
+     */
+    private static int[] maximalSuffix(String pattern, boolean reversed) {
+        int suffix = -1;    // Position before the maximal suffix.
+        int j = 0;          // Start of the candidate.
+        int k = 1;          // Position being compared in the candidate.
+        int period = 1;
+        while (j + k < pattern.length()) {
+            char a = pattern.charAt(j + k);
+            char b = pattern.charAt(suffix + k);
+            if (reversed ? a > b : a < b) {
+                // The candidate is smaller : the suffix continues.
+                j += k;
+                k = 1;
+                period = j - suffix;
+            }
+            else if (a == b) {
+                if (k != period) {
+                    k++;
+                }
+                else {
+                    j += period;
+                    k = 1;
+                }
+            }
+            else {
+                // The candidate is bigger : it becomes the maximal suffix.
+                suffix = j;
+                j = suffix + 1;
+                k = 1;
+                period = 1;
+            }
+        }
+        return new int[]{suffix, period};
+    }
+
+    /**
+     * Search the pattern into the file.
+     *
+     * The position of appearance is the first character which matches the pattern.
+     *
+     * @param pattern   The pattern to look for.
+     * @param filename  The file to look into.
+     * @return          An array containing the positions of appearances.
+     */
+    public ArrayList<Integer> search(String pattern, String filename) {
+        // Another pattern is searched with another instance (this one is not changed).
+        if (!pattern.equals(this.pattern)) {
+            return new TwoWay(pattern).search(pattern, filename);
+        }
+
+        // Load the file into a StringBuffer.
+        return this.searchText(Toolbox.load(filename));
+    }
+
+    /**
+     * Search the pattern into a text already loaded.
+     *
+     * @param text  The text to look into.
+     * @return      An array containing the positions of appearances.
+     */
+    @Override
+    public ArrayList<Integer> searchText(CharSequence text) {
+        ArrayList<Integer> output = new ArrayList<Integer>();
+        long start = SearchStats.ENABLED ? System.nanoTime() : 0;
+        long comparisons = 0;
+        long[] histogram = SearchStats.ENABLED ? new long[32] : null;
+        int m = this.pattern.length();
+        int n = text.length();
+        int memory = -1;    // Characters of the left part already known to match (periodic only).
+        int j = 0;
+
+        while (j <= n - m) {
+            // Compare the right part, from left to right.
+            int i = Math.max(this.critical, memory) + 1;
+            int compared = i;
+            while (i < m && this.pattern.charAt(i) == text.charAt(i + j)) {
+                i++;
+            }
+            if (SearchStats.ENABLED) {
+                comparisons += i - compared + (i < m ? 1 : 0);
+            }
+            if (i < m) {
+                // Shift after the character which doesn't match.
+                j += i - this.critical;
+                memory = -1;
+                if (SearchStats.ENABLED) {
+                    histogram[SearchStats.bucket(i - this.critical)]++;
+                }
+                continue;
+            }
+            // Compare the left part, from right to left.
+            i = this.critical;
+            while (i > memory && this.pattern.charAt(i) == text.charAt(i + j)) {
+                i--;
+            }
+            if (SearchStats.ENABLED) {
+                comparisons += this.critical - i + (i > memory ? 1 : 0);
+                histogram[SearchStats.bucket(this.period)]++;
+            }
+            if (i <= memory) {
+                output.add(j);
+            }
+            j += this.period;
+            // The beginning of the pattern is already compared for the next position.
+            if (this.periodic) {
+                memory = m - this.period - 1;
+            }
+        }
+        if (SearchStats.ENABLED) {
+            STATS.addSearch(n, System.nanoTime() - start, comparisons, 0, 0);
+            STATS.addShifts(histogram, 0, 0);
+        }
+        return output;
+    }
+
+    /**
+     * Create a cursor, to search the pattern into a text given by parts.
+     *
+     * The end of each part (pattern length - 1 characters) is kept, so an occurrence on two parts is found.
+     *
+     * @return A new cursor, at the beginning of the text.
+     */
+    @Override
+    public Cursor cursor() {
+        return new OverlapCursor(this, this.pattern.length());
+    }
+
+    /**
+     * Print the critical position and the period as wanted for the output.
+     * The period is followed by 'p' if the pattern is periodic.
+     */
+    public void printState() {
+        System.out.println(this.critical + " " + this.period + (this.periodic ? "p" : ""));
+    }
+
+    /**
+     * Method to print the two parts of the pattern.
+     *
+     * @return The string representation.
+     */
+    @Override
+    public String toString() {
+        return "TwoWay{" +
+                "left='" + this.pattern.substring(0, this.critical + 1) + '\'' +
+                ", right='" + this.pattern.substring(this.critical + 1) + '\'' +
+                ", period=" + this.period +
+                ", periodic=" + this.periodic +
+                '}';
+    }
+
+    public static void main(String[] args) {
+        String pattern = "ababaca";
+        String filename = "TestFile.txt";
+        TwoWay tw = new TwoWay(pattern);
+
+        System.out.println(tw);
+        System.out.println("Two-Way - Programme");
+        Toolbox.printOutput(tw.search(pattern, filename));
+        System.out.println();
+        System.out.println("Two-Way - TEST with Java methods");
+        Toolbox.printPositionTest(pattern, filename);
+    }
+}
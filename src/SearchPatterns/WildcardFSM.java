@@ -0,0 +1,572 @@
+package SearchPatterns;
+
+import Utilities.SearchStats;
+import Utilities.Toolbox;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * Class to implement a Finite-State Machine for patterns with wildcards.
+ *
+ * The pattern language is small :
+ *
+ *      - ?         Any single character.
+ *      - [abc]     One character of the class. Ranges are allowed ([0-9], [a-zA-Z]).
+ *      - [^abc]    One character which is not in the class.
+ *      - *         A gap of any length (zero or more characters).
+ *      - *{n}      A bounded gap of zero to n characters.
+ *      - \c        The character c itself (to escape ?, *, [ and \).
+ *
+ * Every other character matches itself.
+ *
+ * The pattern is first turned into a non-deterministic automaton, where the state i
+ * means "the i first elements of the pattern are found". This automaton is then
+ * compiled into a deterministic one with the subset construction, so the search
+ * remains one lookup in the table of states per character, like in FSM.
+ *
+ * The alphabet contains each character written in the pattern (including the content
+ * of the classes), and one more column is used for all the other characters.
+ *
+ * The position of each character where an occurrence starts is found (the occurrences can overlap) :
+ *
+ *      - If the pattern has a fixed length, the automaton arrives at a final state when an occurrence
+ *        ends on the current character, and its first character is found directly.
+ *
+ *      - Else, a second automaton built on the reversed pattern is run backward, from the end of the
+ *        text : it arrives at a final state on the first character of each occurrence. Each character
+ *        is read once, so the search stays linear, even with gaps.
+ *
+ * With a gap of any length ('*'), an occurrence does not go past the end of its line, so the text
+ * can be searched line by line (see cursor).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class WildcardFSM implements Searcher {
+    // Counters (only when enabled).
+    private static final SearchStats STATS = SearchStats.ENABLED ? SearchStats.get("WildcardFSM") : null;
+
+    // Automaton (never changed after the constructor : an instance can be shared by threads).
+    private final ArrayList<Character> alphabet;    // Alphabet of pattern (last column is for others characters).
+    private final int[] columns;                    // Column of each character (index is the character).
+    private final TransitionTable stateValues;      // State's values (out of the heap, see TransitionTable).
+    private final boolean[] finalStates;            // States where an occurrence is found.
+    // Reversed automaton, used to find the first characters when the length is not fixed.
+    private final TransitionTable reverseValues;
+    private final boolean[] reverseFinalStates;
+
+    private final String pattern;
+    private final int minLength;                    // Length of the shortest occurrence.
+    private final int maxLength;                    // Length of the longest occurrence (-1 if not bounded).
+
+    /**
+     * Element of the pattern.
+     *
+     * Either a set of characters (one character of the text), or a gap.
+     */
+    private static class Element {
+        private boolean[] set;      // Characters of the alphabet accepted (last one is for others).
+        private boolean optional;   // Can be skipped (used for bounded gaps).
+        private boolean loop;       // Unbounded gap.
+    }
+
+    /**
+     * Constructor with a pattern.
+     *
+     * Parse the pattern, fill in the alphabet and build the two automata.
+     *
+     * @param pattern The pattern to load.
+     */
+    public WildcardFSM(String pattern) {
+        this.pattern = pattern;
+        this.alphabet = new ArrayList<Character>();
+
+        // First pass : fill in the alphabet with all the characters written in the pattern.
+        this.parse(pattern, false);
+
+        // Column of each character, the characters after the biggest one are others characters.
+        int max = 0;
+        for (Character c : this.alphabet) {
+            max = Math.max(max, c);
+        }
+        int[] columns = new int[max + 1];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = this.alphabet.size();
+        }
+        for (int i = 0; i < this.alphabet.size(); i++) {
+            columns[this.alphabet.get(i)] = i;
+        }
+        this.columns = columns;
+
+        // Second pass : build the elements with the final alphabet.
+        ArrayList<Element> elements = this.parse(pattern, true);
+
+        // Length of occurrences.
+        int minLength = 0;
+        int maxLength = 0;
+        for (Element e : elements) {
+            if (e.loop) {
+                maxLength = -1;
+            }
+            else {
+                if (!e.optional) {
+                    minLength++;
+                }
+                if (maxLength != -1) {
+                    maxLength++;
+                }
+            }
+        }
+        if (minLength == 0) {
+            throw new IllegalArgumentException("The pattern must contain at least one character.");
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+
+        // Deterministic automaton, which can start at any position of the text.
+        ArrayList<int[]> values = new ArrayList<int[]>();
+        ArrayList<Boolean> finals = new ArrayList<Boolean>();
+        this.compile(elements, values, finals);
+        this.stateValues = new TransitionTable(values.toArray(new int[values.size()][]));
+        this.finalStates = toArray(finals);
+
+        // Reversed automaton, which can start at any position too (read backward).
+        ArrayList<Element> reversed = new ArrayList<Element>();
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            reversed.add(elements.get(i));
+        }
+        values.clear();
+        finals.clear();
+        this.compile(reversed, values, finals);
+        this.reverseValues = new TransitionTable(values.toArray(new int[values.size()][]));
+        this.reverseFinalStates = toArray(finals);
+    }
+
+    /**
+     * Constructor with the tables saved in a file (see TableFile).
+     *
+     * @param pattern   The pattern.
+     * @param tables    The tables, written by writeTables.
+     * @throws IOException If the tables are not valid.
+     */
+    WildcardFSM(String pattern, ByteBuffer tables) throws IOException {
+        this.pattern = pattern;
+        this.alphabet = new ArrayList<Character>();
+        for (char c : TableFile.readChars(tables).toCharArray()) {
+            this.alphabet.add(c);
+        }
+        this.columns = TableFile.readInts(tables);
+        this.stateValues = new TransitionTable(tables);
+        this.finalStates = TableFile.readBooleans(tables);
+        this.reverseValues = new TransitionTable(tables);
+        this.reverseFinalStates = TableFile.readBooleans(tables);
+        this.minLength = tables.getInt();
+        this.maxLength = tables.getInt();
+
+        int columns = this.alphabet.size() + 1;
+        for (int column : this.columns) {
+            TableFile.check(column >= 0 && column < columns, "columns");
+        }
+        int states = this.stateValues.rows();
+        TableFile.check(states > 0, "automaton size");
+        TableFile.checkStates(this.stateValues, states, columns, states, "automaton");
+        TableFile.check(this.finalStates.length == states, "final states");
+        int reverseStates = this.reverseValues.rows();
+        TableFile.check(reverseStates > 0, "reversed automaton size");
+        TableFile.checkStates(this.reverseValues, reverseStates, columns, reverseStates, "reversed automaton");
+        TableFile.check(this.reverseFinalStates.length == reverseStates, "reversed final states");
+        TableFile.check(this.minLength >= 1 && (this.maxLength == -1 || this.maxLength >= this.minLength),
+                "length of the occurrences");
+    }
+
+    /**
+     * Write the tables (alphabet, columns and both automata), to load them with the constructor.
+     *
+     * @param out   The file.
+     * @throws IOException If the file can not be written.
+     */
+    void writeTables(DataOutputStream out) throws IOException {
+        StringBuilder alphabet = new StringBuilder();
+        for (Character c : this.alphabet) {
+            alphabet.append(c);
+        }
+        TableFile.writeChars(out, alphabet);
+        TableFile.writeInts(out, this.columns);
+        this.stateValues.write(out);
+        TableFile.writeBooleans(out, this.finalStates);
+        this.reverseValues.write(out);
+        TableFile.writeBooleans(out, this.reverseFinalStates);
+        out.writeInt(this.minLength);
+        out.writeInt(this.maxLength);
+    }
+
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    /**
+     * Parse the pattern.
+     *
+     * When build is false, only the alphabet is filled in.
+     * Else, the list of elements is created.
+     *
+     * @param pattern   The pattern to parse.
+     * @param build     If the elements have to be created.
+     * @return          The elements of the pattern (null if build is false).
+     */
+    private ArrayList<Element> parse(String pattern, boolean build) {
+        ArrayList<Element> elements = build ? new ArrayList<Element>() : null;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '?') {
+                if (build) {
+                    elements.add(this.anyCharacter(false));
+                }
+                i++;
+            }
+            else if (c == '*') {
+                i++;
+                // Bounded gap : *{n}
+                if (i < pattern.length() && pattern.charAt(i) == '{') {
+                    int end = pattern.indexOf('}', i);
+                    if (end == -1) {
+                        throw new IllegalArgumentException("Missing '}' in the pattern.");
+                    }
+                    int n = Integer.parseInt(pattern.substring(i + 1, end));
+                    if (build) {
+                        for (int k = 0; k < n; k++) {
+                            elements.add(this.anyCharacter(true));
+                        }
+                    }
+                    i = end + 1;
+                }
+                else if (build) {
+                    Element e = this.anyCharacter(false);
+                    e.loop = true;
+                    elements.add(e);
+                }
+            }
+            else if (c == '[') {
+                int end = i + 1;
+                // A ']' just after '[' (or '[^') is part of the class.
+                if (end < pattern.length() && pattern.charAt(end) == '^') {
+                    end++;
+                }
+                end = pattern.indexOf(']', end + 1);
+                if (end == -1) {
+                    throw new IllegalArgumentException("Missing ']' in the pattern.");
+                }
+                boolean negated = pattern.charAt(i + 1) == '^';
+                String content = pattern.substring(negated ? i + 2 : i + 1, end);
+                Element e = build ? new Element() : null;
+                if (build) {
+                    e.set = new boolean[this.alphabet.size() + 1];
+                }
+                for (int k = 0; k < content.length(); k++) {
+                    char from = content.charAt(k);
+                    char to = from;
+                    // Range of characters.
+                    if (k + 2 < content.length() && content.charAt(k + 1) == '-') {
+                        to = content.charAt(k + 2);
+                        k += 2;
+                    }
+                    for (char r = from; r <= to && r >= from; r++) {
+                        if (build) {
+                            e.set[this.column(r)] = true;
+                        }
+                        else if (!this.alphabet.contains(r)) {
+                            this.alphabet.add(r);
+                        }
+                    }
+                }
+                if (build) {
+                    if (negated) {
+                        for (int k = 0; k < e.set.length; k++) {
+                            e.set[k] = !e.set[k];
+                        }
+                    }
+                    elements.add(e);
+                }
+                i = end + 1;
+            }
+            else {
+                // Escaped character.
+                if (c == '\\' && i + 1 < pattern.length()) {
+                    i++;
+                    c = pattern.charAt(i);
+                }
+                if (build) {
+                    Element e = new Element();
+                    e.set = new boolean[this.alphabet.size() + 1];
+                    e.set[this.column(c)] = true;
+                    elements.add(e);
+                }
+                else if (!this.alphabet.contains(c)) {
+                    this.alphabet.add(c);
+                }
+                i++;
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Create an element which accepts all the characters.
+     *
+     * @param optional  If the element can be skipped.
+     * @return          The element.
+     */
+    private Element anyCharacter(boolean optional) {
+        Element e = new Element();
+        e.set = new boolean[this.alphabet.size() + 1];
+        for (int k = 0; k < e.set.length; k++) {
+            e.set[k] = true;
+        }
+        e.optional = optional;
+        return e;
+    }
+
+    /**
+     * Get the column of a character in the table of states.
+     *
+     * @param c The character.
+     * @return  The column (the last one if the character is not in the alphabet).
+     */
+    private int column(char c) {
+        return c < this.columns.length ? this.columns[c] : this.alphabet.size();
+    }
+
+    /**
+     * Build a deterministic automaton with the subset construction.
+     *
+     * Each state of the deterministic automaton is a set of states of the non-deterministic one.
+     * The state i of the non-deterministic automaton means that the i first elements are found.
+     * Optional elements and gaps can be skipped without reading a character (closure).
+     *
+     * The state 0 is always active (an occurrence can start anywhere).
+     *
+     * @param elements  The elements of the pattern.
+     * @param values    Output : the table of states.
+     * @param finals    Output : if each state is a final state.
+     */
+    private void compile(ArrayList<Element> elements, ArrayList<int[]> values, ArrayList<Boolean> finals) {
+        int columns = this.alphabet.size() + 1;
+        HashMap<BitSet, Integer> states = new HashMap<BitSet, Integer>();
+        ArrayList<BitSet> todo = new ArrayList<BitSet>();
+
+        BitSet start = new BitSet();
+        start.set(0);
+        this.closure(elements, start);
+        states.put(start, 0);
+        todo.add(start);
+
+        // Each new set of states is added at the end of the list and processed in turn.
+        for (int s = 0; s < todo.size(); s++) {
+            BitSet current = todo.get(s);
+            int[] row = new int[columns];
+            for (int j = 0; j < columns; j++) {
+                BitSet next = new BitSet();
+                for (int i = current.nextSetBit(0); i >= 0; i = current.nextSetBit(i + 1)) {
+                    if (i < elements.size() && elements.get(i).set[j]) {
+                        // A gap stays in the same state, other elements go to the next state.
+                        next.set(elements.get(i).loop ? i : i + 1);
+                    }
+                }
+                next.set(0);
+                this.closure(elements, next);
+                Integer index = states.get(next);
+                if (index == null) {
+                    index = todo.size();
+                    states.put(next, index);
+                    todo.add(next);
+                }
+                row[j] = index;
+            }
+            values.add(row);
+            finals.add(current.get(elements.size()));
+        }
+    }
+
+    /**
+     * Add the states we can reach without reading a character (skipping optional elements and gaps).
+     *
+     * @param elements  The elements of the pattern.
+     * @param set       The set of states to complete.
+     */
+    private void closure(ArrayList<Element> elements, BitSet set) {
+        for (int i = 0; i < elements.size(); i++) {
+            if (set.get(i) && (elements.get(i).optional || elements.get(i).loop)) {
+                set.set(i + 1);
+            }
+        }
+    }
+
+    /**
+     * Convert a list of Boolean into an array.
+     *
+     * @param list  The list to convert.
+     * @return      The array.
+     */
+    private static boolean[] toArray(ArrayList<Boolean> list) {
+        boolean[] array = new boolean[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Search the pattern into the file.
+     *
+     * The position of appearance is the first character which matches the pattern.
+     * If several occurrences start at the same position, the position is only added once.
+     * With a gap '*', an occurrence does not go past the end of its line.
+     *
+     * @param pattern   The pattern to look for.
+     * @param filename  The file to look into.
+     * @return          An array containing the positions of appearances.
+     */
+    public ArrayList<Integer> search(String pattern, String filename) {
+        // Another pattern is searched with other automata (these ones are not changed).
+        if (!pattern.equals(this.pattern)) {
+            return new WildcardFSM(pattern).search(pattern, filename);
+        }
+
+        // Load the file into a StringBuffer.
+        return this.searchText(Toolbox.load(filename));
+    }
+
+    /**
+     * Search the pattern into a text already loaded.
+     *
+     * @param text  The text to look into.
+     * @return      An array containing the positions of appearances.
+     */
+    @Override
+    public ArrayList<Integer> searchText(CharSequence text) {
+        ArrayList<Integer> output = new ArrayList<Integer>();
+        long start = SearchStats.ENABLED ? System.nanoTime() : 0;
+        boolean fixed = this.maxLength == this.minLength;
+        long[] visits = SearchStats.ENABLED ? new long[(fixed ? this.stateValues : this.reverseValues).rows()] : null;
+
+        if (fixed) {
+            // Start at state 0.
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                state = this.stateValues.get(state, this.column(text.charAt(i)));
+                if (SearchStats.ENABLED) {
+                    visits[state]++;
+                }
+                // If match, put the first character into the output array.
+                if (this.finalStates[state]) {
+                    output.add(i - (this.minLength - 1));
+                }
+            }
+        }
+        else {
+            // Backward from the end : a final state is reached on the first character of an occurrence.
+            // Without bound, the automaton starts again at each end of line (an occurrence can end on it).
+            boolean lines = this.maxLength == -1;
+            int state = 0;
+            for (int i = text.length() - 1; i >= 0; i--) {
+                char c = text.charAt(i);
+                if (lines && c == '\n') {
+                    state = 0;
+                }
+                state = this.reverseValues.get(state, this.column(c));
+                if (SearchStats.ENABLED) {
+                    visits[state]++;
+                }
+                if (this.reverseFinalStates[state]) {
+                    output.add(i);
+                }
+            }
+            Collections.reverse(output);
+        }
+        if (SearchStats.ENABLED) {
+            STATS.addSearch(text.length(), System.nanoTime() - start, 0, 0, 0);
+            STATS.addStateVisits(visits);
+        }
+
+        return output;
+    }
+
+    /**
+     * Create a cursor, to search the pattern into a text given by parts.
+     *
+     * If the length of the occurrences is bounded, the end of each part is kept. Else, the text
+     * is searched line by line, as searchText does.
+     *
+     * @return A new cursor, at the beginning of the text.
+     */
+    @Override
+    public Cursor cursor() {
+        return new OverlapCursor(this, this.maxLength);
+    }
+
+    /**
+     * Print the states of the automaton as wanted for the output.
+     * Letter (header of array) is not printed. The last column is for others characters.
+     */
+    public void printState() {
+        String s = "";
+        // State values
+        for (int i = 0; i < this.stateValues.rows(); i++) {
+            s += " ";
+            for (int j = 0; j < this.stateValues.columns(); j++) {
+                s += this.stateValues.get(i, j) + " ";
+            }
+            s += "\n";
+        }
+        System.out.println(s);
+    }
+
+    /**
+     * Method to print the content of the automaton.
+     *
+     * Final states are marked with a '*'.
+     *
+     * @return The string representation.
+     */
+    @Override
+    public String toString() {
+        String s = "Pattern : " + this.pattern + "\n";
+        s += "Alphabet : \n";
+        // Alphabet
+        s += "|";
+        for (Character c : this.alphabet) {
+            s += c + "|";
+        }
+        s += "others|\n";
+        // State values
+        for (int i = 0; i < this.stateValues.rows(); i++) {
+            s += this.finalStates[i] ? "*|" : "|";
+            for (int j = 0; j < this.stateValues.columns(); j++) {
+                s += this.stateValues.get(i, j) + "|";
+            }
+            s += "\n";
+        }
+        return s;
+    }
+
+    public static void main(String[] args) {
+        String pattern = "ab?b[a-c]ca";
+        String filename = "TestFile.txt";
+        WildcardFSM fsm = new WildcardFSM(pattern);
+
+        System.out.println(fsm);
+        System.out.println("Wildcard FSM - Programme");
+        Toolbox.printOutput(fsm.search(pattern, filename));
+        System.out.println();
+        System.out.println("Wildcard FSM - TEST with Java methods (pattern ababaca)");
+        Toolbox.printPositionTest("ababaca", filename);
+    }
+}
@@ -0,0 +1,162 @@
+package Utilities;
+
+import SearchPatterns.Engines;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class Batch.
+ *
+ * Search many patterns into the same text : the text is loaded once, and the patterns
+ * are searched in parallel (one task per pattern, as many threads as cores).
+ *
+ * The file of patterns has one pattern per line, after the number of its algorithm
+ * (the same numbers as in Main) and a space :
+ *
+ *      3 ababaca
+ *      6 ab(c|d)*e
+ *
+ * Empty lines and lines starting with '#' are ignored.
+ *
+ * The text is loaded with Toolbox.load (a String or a read-only buffer, and not the StringBuffer
+ * of Toolbox.read), since the methods of a StringBuffer are synchronized and would be shared by all the threads.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class Batch {
+
+    private ArrayList<Integer> algos = new ArrayList<Integer>();
+    private ArrayList<String> patterns = new ArrayList<String>();
+
+    /**
+     * Add a pattern to search.
+     *
+     * @param algo      The number of the algorithm.
+     * @param pattern   The pattern.
+     */
+    public void add(int algo, String pattern) {
+        this.algos.add(algo);
+        this.patterns.add(pattern);
+    }
+
+    /**
+     * Add the patterns of a file.
+     *
+     * @param filename  The file of patterns.
+     * @throws IOException If the file can not be read.
+     * @throws IllegalArgumentException If a line is not valid.
+     */
+    public void load(String filename) throws IOException {
+        BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(filename)));
+        try {
+            String line;
+            int number = 0;
+            while ((line = br.readLine()) != null) {
+                number++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int space = line.indexOf(' ');
+                if (space <= 0 || space == line.length() - 1) {
+                    throw new IllegalArgumentException(filename + ":" + number + ": expected <algo> <pattern>");
+                }
+                try {
+                    this.add(Integer.parseInt(line.substring(0, space)), line.substring(space + 1));
+                }
+                catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(filename + ":" + number + ": invalid algorithm", e);
+                }
+            }
+        }
+        finally {
+            br.close();
+        }
+    }
+
+    /**
+     * Get the number of patterns.
+     *
+     * @return The number of patterns.
+     */
+    public int size() {
+        return this.patterns.size();
+    }
+
+    /**
+     * Search all the patterns into a text.
+     *
+     * @param text      The text to look into.
+     * @param threads   The number of threads.
+     * @return          The positions of appearances of each pattern (in the order of the patterns),
+     *                  null for a pattern which can not be searched (invalid pattern or algorithm).
+     * @throws InterruptedException If the thread is interrupted while waiting for the results.
+     */
+    public ArrayList<ArrayList<Integer>> search(final CharSequence text, int threads) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            ArrayList<Future<ArrayList<Integer>>> futures = new ArrayList<Future<ArrayList<Integer>>>();
+            for (int i = 0; i < this.patterns.size(); i++) {
+                final int algo = this.algos.get(i);
+                final String pattern = this.patterns.get(i);
+                futures.add(executor.submit(new Callable<ArrayList<Integer>>() {
+                    @Override
+                    public ArrayList<Integer> call() {
+                        return Engines.create(algo, pattern).searchText(text);
+                    }
+                }));
+            }
+            ArrayList<ArrayList<Integer>> results = new ArrayList<ArrayList<Integer>>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                }
+                catch (ExecutionException e) {
+                    System.err.println(this.algos.get(i) + " " + this.patterns.get(i) + ": " + e.getCause().getMessage());
+                    results.add(null);
+                }
+            }
+            return results;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Search all the patterns into a file and print the results, grouped by pattern :
+     * the algorithm and the pattern, then the output of Toolbox.printOutput.
+     *
+     * @param filename  The file to look into.
+     * @throws InterruptedException If the thread is interrupted while waiting for the results.
+     */
+    public void print(String filename) throws InterruptedException {
+        CharSequence text = Toolbox.load(filename);
+        ArrayList<ArrayList<Integer>> results = this.search(text, Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < results.size(); i++) {
+            System.out.println(this.algos.get(i) + " " + this.patterns.get(i));
+            if (results.get(i) != null) {
+                Toolbox.printOutput(results.get(i));
+            }
+            System.out.println();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Batch batch = new Batch();
+        batch.add(3, "ababaca");
+        batch.add(4, "Java");
+        batch.add(6, "ab(ab)*c");
+        batch.print("TestFile.txt");
+    }
+}
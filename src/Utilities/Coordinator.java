@@ -0,0 +1,367 @@
+package Utilities;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class Coordinator.
+ *
+ * Search a pattern into files with many processes (other JVMs, each with its own heap and garbage collector).
+ * The files are split into parts (shards) of about the same size, and each part is searched by
+ * a Worker process, with the same search patterns as in Main. At most N workers run at the same time.
+ *
+ * A big file is split into ranges of bytes :
+ *
+ *      - The limits are moved to the start of a character (UTF-8), so the characters are the same as when
+ *        the whole file is decoded. Only UTF-8 and the charsets with one byte per character can be split.
+ *
+ *      - Each worker also reads the beginning of the next part (overlap), as many bytes as the pattern can
+ *        have minus one, to find the occurrences which start in its part and end in the next one.
+ *
+ *      - A worker doesn't know how many characters are before its part : it sends the positions from the start of
+ *        its part, and its number of characters. The positions are moved when the results are merged (in order).
+ *
+ * A pattern without a maximal length (regular expressions, wildcard '*') and a compressed file are not split :
+ * the file is searched by one worker.
+ *
+ * The workers send their results on their standard output (see Worker). A worker which fails (its process
+ * ends before the end of its results) is started again, at most RETRIES times.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class Coordinator {
+
+    public static final int RETRIES = 2;        // Number of times a part is searched again if its worker fails.
+    private static final String OPTIONS = "searchpatterns.worker.options";   // Options of the JVMs of the workers.
+
+    private int algo;
+    private String pattern;
+    private int processes;
+
+    /**
+     * Part of a file searched by a worker.
+     */
+    private static class Shard {
+        private int file;       // Index of the file.
+        private long start;     // First byte.
+        private long ownEnd;    // Byte after the part (-1 until the end of the file).
+        private long end;       // Byte after the overlap (-1 until the end of the file).
+
+        private Shard(int file, long start, long ownEnd, long end) {
+            this.file = file;
+            this.start = start;
+            this.ownEnd = ownEnd;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Results of a part : positions from the start of the part, and number of characters of the part.
+     */
+    private static class Result {
+        private ArrayList<Long> positions = new ArrayList<Long>();
+        private long characters = -1;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param algo      The number of the algorithm (the same numbers as in Main).
+     * @param pattern   The pattern.
+     * @param processes The maximal number of workers at the same time.
+     */
+    public Coordinator(int algo, String pattern, int processes) {
+        if (processes < 1) {
+            throw new IllegalArgumentException("The number of processes must be positive.");
+        }
+        this.algo = algo;
+        this.pattern = pattern;
+        this.processes = processes;
+    }
+
+    /**
+     * Search the pattern into files.
+     *
+     * @param filenames The files to look into.
+     * @return          The positions of appearances of the pattern in each file (in the order of the files).
+     * @throws IOException If a file can not be read, or a worker fails more than RETRIES times.
+     * @throws InterruptedException If the thread is interrupted while waiting for the workers.
+     */
+    public ArrayList<ArrayList<Long>> search(String... filenames) throws IOException, InterruptedException {
+        ArrayList<Shard> shards = this.split(filenames);
+        ExecutorService executor = Executors.newFixedThreadPool(this.processes);
+        try {
+            ArrayList<Future<Result>> futures = new ArrayList<Future<Result>>();
+            for (final Shard shard : shards) {
+                final String filename = filenames[shard.file];
+                futures.add(executor.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() throws IOException, InterruptedException {
+                        return Coordinator.this.run(filename, shard);
+                    }
+                }));
+            }
+            // Merge in order : the positions of a part are moved by the characters of the parts before it.
+            ArrayList<ArrayList<Long>> results = new ArrayList<ArrayList<Long>>();
+            for (int i = 0; i < filenames.length; i++) {
+                results.add(new ArrayList<Long>());
+            }
+            long characters = 0;
+            int file = -1;
+            for (int i = 0; i < shards.size(); i++) {
+                Result result;
+                try {
+                    result = futures.get(i).get();
+                }
+                catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+                if (shards.get(i).file != file) {
+                    file = shards.get(i).file;
+                    characters = 0;
+                }
+                for (Long position : result.positions) {
+                    results.get(file).add(characters + position);
+                }
+                characters += result.characters;
+            }
+            return results;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Split the files into parts.
+     *
+     * The size of a part is the size of all the files divided by the number of processes.
+     *
+     * @param filenames The files.
+     * @return          The parts, in the order of the files and of the bytes.
+     * @throws IOException If a file can not be read.
+     */
+    private ArrayList<Shard> split(String[] filenames) throws IOException {
+        long total = 0;
+        for (String filename : filenames) {
+            total += new File(filename).length();
+        }
+        long size = Math.max(1, (total + this.processes - 1) / this.processes);
+        long overlap = this.overlap();
+
+        ArrayList<Shard> shards = new ArrayList<Shard>();
+        for (int f = 0; f < filenames.length; f++) {
+            long length = new File(filenames[f]).length();
+            if (overlap == -1 || Decompression.isCompressed(filenames[f]) || length <= size) {
+                shards.add(new Shard(f, 0, -1, -1));
+                continue;
+            }
+            RandomAccessFile file = new RandomAccessFile(filenames[f], "r");
+            try {
+                long start = 0;
+                while (start < length) {
+                    long ownEnd = align(file, Math.min(length, start + size));
+                    long end = align(file, Math.min(length, ownEnd + overlap));
+                    shards.add(new Shard(f, start, ownEnd, end));
+                    start = ownEnd;
+                }
+            }
+            finally {
+                file.close();
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Number of bytes of the next part read by a worker : the maximal length of an occurrence minus one character.
+     *
+     * @return The number of bytes, -1 if the files can not be split.
+     */
+    private long overlap() {
+        Charset charset = Charset.defaultCharset();
+        int bytes = (int) Math.ceil(charset.newEncoder().maxBytesPerChar());
+        if (bytes != 1 && !charset.name().equals("UTF-8")) {
+            return -1;
+        }
+        switch (this.algo) {
+            case 5:
+                // The wildcards '?' and [a-z] are one character, '*' any number.
+                if (this.pattern.indexOf('*') != -1) {
+                    return -1;
+                }
+                return (long) Math.max(0, this.pattern.length() - 1) * bytes;
+            case 1:
+            case 2:
+            case 3:
+            case 4:
+            case 7:
+                return (long) Math.max(0, this.pattern.length() - 1) * bytes;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Move a position to the start of a character (UTF-8) : the continuation bytes (10xxxxxx) are skipped.
+     *
+     * @param file      The file.
+     * @param position  The position.
+     * @return          The first position, from this one, which is not a continuation byte (at most 3 bytes after).
+     * @throws IOException If the file can not be read.
+     */
+    private static long align(RandomAccessFile file, long position) throws IOException {
+        if (!Charset.defaultCharset().name().equals("UTF-8")) {
+            return position;
+        }
+        file.seek(position);
+        for (int i = 0; i < 3; i++) {
+            int b = file.read();
+            if (b == -1 || (b & 0xC0) != 0x80) {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Search a part with a worker, again if it fails.
+     *
+     * @param filename  The file.
+     * @param shard     The part.
+     * @return          The results of the part.
+     * @throws IOException If the worker fails more than RETRIES times.
+     * @throws InterruptedException If the thread is interrupted while waiting for the worker.
+     */
+    private Result run(String filename, Shard shard) throws IOException, InterruptedException {
+        IOException failure = null;
+        for (int attempt = 0; attempt <= RETRIES; attempt++) {
+            try {
+                return this.work(filename, shard);
+            }
+            catch (IOException e) {
+                failure = e;
+                System.err.println(filename + " [" + shard.start + ", " + shard.ownEnd + "]: " + e.getMessage()
+                        + (attempt < RETRIES ? ", retrying" : ""));
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Start a worker for a part and read its results.
+     *
+     * @param filename  The file.
+     * @param shard     The part.
+     * @return          The results of the part.
+     * @throws IOException If the worker fails.
+     * @throws InterruptedException If the thread is interrupted while waiting for the worker.
+     */
+    private Result work(String filename, Shard shard) throws IOException, InterruptedException {
+        ArrayList<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Dfile.encoding=" + Charset.defaultCharset().name());
+        String options = System.getProperty(OPTIONS, "").trim();
+        if (!options.isEmpty()) {
+            command.addAll(Arrays.asList(options.split("\\s+")));
+        }
+        command.add(Worker.class.getName());
+        command.add(Integer.toString(this.algo));
+        command.add(filename);
+        command.add(Long.toString(shard.start));
+        command.add(Long.toString(shard.ownEnd));
+        command.add(Long.toString(shard.end));
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+        try {
+            DataOutputStream out = new DataOutputStream(process.getOutputStream());
+            try {
+                out.writeUTF(this.pattern);
+            }
+            finally {
+                out.close();
+            }
+            Result result = new Result();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(process.getInputStream(), StreamSearch.BUFFER_SIZE));
+            try {
+                int type;
+                while ((type = in.readByte()) != Worker.END) {
+                    if (type == Worker.MATCH) {
+                        result.positions.add(in.readLong());
+                    }
+                    else if (type == Worker.CHARACTERS) {
+                        result.characters = in.readLong();
+                    }
+                    else {
+                        throw new IOException("Invalid output of the worker: " + type);
+                    }
+                }
+            }
+            catch (EOFException e) {
+                throw new IOException("The worker ended with the code " + process.waitFor());
+            }
+            finally {
+                in.close();
+            }
+            int code = process.waitFor();
+            if (code != 0 || result.characters == -1) {
+                throw new IOException("The worker ended with the code " + code);
+            }
+            return result;
+        }
+        finally {
+            process.destroy();
+        }
+    }
+
+    /**
+     * Search the pattern into files and print the results : the output of Toolbox.printOutput for one file,
+     * and for many files, the name of each file before its results.
+     *
+     * @param filenames The files to look into.
+     * @throws IOException If a file can not be read, or a worker fails more than RETRIES times.
+     * @throws InterruptedException If the thread is interrupted while waiting for the workers.
+     */
+    public void print(String... filenames) throws IOException, InterruptedException {
+        ArrayList<ArrayList<Long>> results = this.search(filenames);
+        for (int i = 0; i < results.size(); i++) {
+            if (filenames.length > 1) {
+                System.out.println(filenames[i]);
+            }
+            System.out.println(results.get(i).size());
+            for (Long position : results.get(i)) {
+                System.out.printf(position + " ");
+            }
+            if (filenames.length > 1) {
+                System.out.println();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        new Coordinator(3, "ababaca", 4).print("TestFile.txt");
+    }
+}
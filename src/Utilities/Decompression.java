@@ -0,0 +1,267 @@
+package Utilities;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Class Decompression.
+ *
+ * Open a file, compressed or not. The format is detected with the first bytes of the file :
+ *
+ *      - gzip (1f 8b) : the file is decompressed on another thread (producer), which fills
+ *        buffers and puts them in a bounded queue. The stream returned reads the buffers
+ *        of the queue (consumer). So the decompression and the search are done at the same
+ *        time on two cores, and only a few buffers are in memory.
+ *
+ *      - zstd (28 b5 2f fd) : detected, but not supported (no decoder in the JDK).
+ *
+ *      - Other files are read directly.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class Decompression {
+
+    public static final int BUFFER_SIZE = 64 * 1024;    // Size of the buffers.
+    public static final int BUFFERS = 4;                // Number of buffers (filled or free).
+
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1f, (byte) 0x8b};
+    private static final byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd};
+
+    /**
+     * Check if a file is compressed (gzip or zstd).
+     *
+     * A file which does not exist or can not be opened is not compressed : the error is
+     * reported when the file is read (see Toolbox.read).
+     *
+     * @param filename  The file to check.
+     * @return          True if the file starts with the magic number of a compressed format.
+     * @throws IOException If the file can not be read.
+     */
+    public static boolean isCompressed(String filename) throws IOException {
+        byte[] magic;
+        try {
+            magic = readMagic(filename);
+        }
+        catch (FileNotFoundException e) {
+            return false;
+        }
+        return startsWith(magic, GZIP_MAGIC) || startsWith(magic, ZSTD_MAGIC);
+    }
+
+    /**
+     * Open a file, compressed or not.
+     *
+     * @param filename  The file to open.
+     * @return          The stream of the (decompressed) content.
+     * @throws IOException If the file can not be read, or if the format is not supported.
+     */
+    public static InputStream open(String filename) throws IOException {
+        byte[] magic = readMagic(filename);
+        if (startsWith(magic, ZSTD_MAGIC)) {
+            throw new IOException("zstd compression is not supported: " + filename);
+        }
+        if (startsWith(magic, GZIP_MAGIC)) {
+            return new PipedStream(new GZIPInputStream(new FileInputStream(filename), BUFFER_SIZE));
+        }
+        return new BufferedInputStream(new FileInputStream(filename), BUFFER_SIZE);
+    }
+
+    /**
+     * Read the first bytes of a file.
+     *
+     * @param filename  The file to read.
+     * @return          The first bytes (4 at most).
+     * @throws IOException If the file can not be read.
+     */
+    private static byte[] readMagic(String filename) throws IOException {
+        InputStream in = new FileInputStream(filename);
+        try {
+            byte[] magic = new byte[4];
+            int length = 0;
+            int read;
+            while (length < magic.length && (read = in.read(magic, length, magic.length - length)) != -1) {
+                length += read;
+            }
+            byte[] result = new byte[length];
+            System.arraycopy(magic, 0, result, 0, length);
+            return result;
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Check if an array starts with a prefix.
+     *
+     * @param array     The array.
+     * @param prefix    The prefix.
+     * @return          True if the array starts with the prefix.
+     */
+    private static boolean startsWith(byte[] array, byte[] prefix) {
+        if (array.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (array[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Buffer exchanged between the two threads.
+     *
+     * A buffer with a length of -1 is the end of the stream (with an error if the producer failed).
+     */
+    private static class Chunk {
+        private byte[] data = new byte[BUFFER_SIZE];
+        private int length;
+        private IOException error;
+    }
+
+    /**
+     * Stream filled by another thread.
+     *
+     * The buffers go round between two queues : the producer takes a free buffer, fills it
+     * and puts it in the filled queue; the consumer reads it and puts it back in the free queue.
+     */
+    private static class PipedStream extends InputStream {
+        private BlockingQueue<Chunk> filled = new ArrayBlockingQueue<Chunk>(BUFFERS + 1);
+        private BlockingQueue<Chunk> free = new ArrayBlockingQueue<Chunk>(BUFFERS);
+        private Thread producer;
+        private Chunk current;      // Buffer being read (null if none).
+        private int offset;         // Position in the current buffer.
+        private boolean finished;   // End of the stream reached.
+
+        private PipedStream(final InputStream source) {
+            for (int i = 0; i < BUFFERS; i++) {
+                this.free.add(new Chunk());
+            }
+            this.producer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    produce(source);
+                }
+            }, "decompression");
+            this.producer.setDaemon(true);
+            this.producer.start();
+        }
+
+        /**
+         * Fill the buffers with the source (run by the producer).
+         *
+         * @param source The stream to read.
+         */
+        private void produce(InputStream source) {
+            Chunk end = new Chunk();
+            end.length = -1;
+            try {
+                while (true) {
+                    Chunk chunk = this.free.take();
+                    chunk.length = 0;
+                    int read = 0;
+                    // Fill the whole buffer, the reads of a GZIPInputStream are small.
+                    while (chunk.length < chunk.data.length
+                            && (read = source.read(chunk.data, chunk.length, chunk.data.length - chunk.length)) != -1) {
+                        chunk.length += read;
+                    }
+                    if (chunk.length > 0) {
+                        this.filled.put(chunk);
+                    }
+                    if (read == -1) {
+                        break;
+                    }
+                }
+            }
+            catch (IOException e) {
+                end.error = e;
+            }
+            catch (InterruptedException e) {
+                // The consumer has closed the stream.
+                return;
+            }
+            finally {
+                try {
+                    source.close();
+                }
+                catch (IOException e) {
+                    // Nothing more to read.
+                }
+            }
+            this.filled.add(end);
+        }
+
+        /**
+         * Get the buffer to read (wait for the producer if needed).
+         *
+         * @return True if there is something to read.
+         * @throws IOException If the producer failed.
+         */
+        private boolean next() throws IOException {
+            if (this.finished) {
+                return false;
+            }
+            if (this.current != null && this.offset < this.current.length) {
+                return true;
+            }
+            if (this.current != null) {
+                this.free.add(this.current);
+                this.current = null;
+            }
+            try {
+                Chunk chunk = this.filled.take();
+                if (chunk.length == -1) {
+                    this.finished = true;
+                    if (chunk.error != null) {
+                        throw chunk.error;
+                    }
+                    return false;
+                }
+                this.current = chunk;
+                this.offset = 0;
+                return true;
+            }
+            catch (InterruptedException e) {
+                throw new IOException("Interrupted while waiting for the decompression.", e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!this.next()) {
+                return -1;
+            }
+            return this.current.data[this.offset++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.next()) {
+                return -1;
+            }
+            int count = Math.min(len, this.current.length - this.offset);
+            System.arraycopy(this.current.data, this.offset, b, off, count);
+            this.offset += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            this.finished = true;
+            this.producer.interrupt();
+        }
+    }
+}
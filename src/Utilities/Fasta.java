@@ -0,0 +1,116 @@
+package Utilities;
+
+import SearchPatterns.DnaSearch;
+import SearchPatterns.PackedSequence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+
+/**
+ * Class Fasta.
+ *
+ * Read the records of a FASTA file, each one packed with 2 bits per base (see PackedSequence) :
+ *
+ *      >name description
+ *      ACGTNNNNACGT...
+ *      ACGT...
+ *
+ * The lines of a record are joined, so the positions are from the first base of the record
+ * (the ends of lines are not counted). The lines starting with ';' are comments. A file
+ * without header is one record without name. The file can be compressed (see Decompression).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class Fasta {
+
+    /**
+     * Record of a FASTA file : its name (the header without '>') and its bases.
+     */
+    public static class Record {
+        private String name;
+        private PackedSequence sequence;
+
+        private Record(String name, PackedSequence sequence) {
+            this.name = name;
+            this.sequence = sequence;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public PackedSequence getSequence() {
+            return this.sequence;
+        }
+    }
+
+    /**
+     * Read the records of a file.
+     *
+     * @param filename  The FASTA file.
+     * @return          The records, in the order of the file.
+     * @throws IOException If the file can not be read.
+     */
+    public static ArrayList<Record> read(String filename) throws IOException {
+        ArrayList<Record> records = new ArrayList<Record>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Decompression.open(filename)),
+                StreamSearch.BUFFER_SIZE);
+        try {
+            Record record = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(">")) {
+                    if (record != null) {
+                        record.sequence.trim();
+                    }
+                    record = new Record(line.substring(1).trim(), new PackedSequence());
+                    records.add(record);
+                }
+                else if (!line.startsWith(";")) {
+                    if (record == null) {
+                        record = new Record("", new PackedSequence());
+                        records.add(record);
+                    }
+                    for (int i = 0; i < line.length(); i++) {
+                        char c = line.charAt(i);
+                        if (!Character.isWhitespace(c)) {
+                            record.sequence.append(c);
+                        }
+                    }
+                }
+            }
+            if (record != null) {
+                record.sequence.trim();
+            }
+        }
+        finally {
+            reader.close();
+        }
+        return records;
+    }
+
+    /**
+     * Search a pattern into the records of a file and print the results : for each record, its name,
+     * then the output of Toolbox.printOutput.
+     *
+     * @param pattern   The pattern (A, C, G, T).
+     * @param filename  The FASTA file.
+     * @throws IOException If the file can not be read.
+     */
+    public static void print(String pattern, String filename) throws IOException {
+        DnaSearch dna = new DnaSearch(pattern);
+        for (Record record : read(filename)) {
+            System.out.println(record.getName());
+            Toolbox.printOutput(dna.search(record.getSequence()));
+            System.out.println();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        print("ACGT", "TestFile.fasta");
+    }
+}
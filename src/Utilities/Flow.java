@@ -0,0 +1,90 @@
+package Utilities;
+
+/**
+ * Class Flow.
+ *
+ * Interfaces of a flow of items with backpressure, the same as java.util.concurrent.Flow
+ * (which only exists since Java 9) : a Subscriber subscribes to a Publisher, receives a Subscription,
+ * and asks with it how many items it can receive (request) or stops the flow (cancel).
+ *
+ * An implementation can be given to java.util.concurrent.Flow with an adapter which calls the same methods.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public final class Flow {
+
+    private Flow() {
+    }
+
+    /**
+     * Producer of items, sent to its subscribers.
+     *
+     * @param <T> The type of the items.
+     */
+    public interface Publisher<T> {
+
+        /**
+         * Add a subscriber. Its method onSubscribe is called first, then it receives the items it requests.
+         *
+         * @param subscriber The subscriber.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * Receiver of items.
+     *
+     * The methods are called one after the other (never at the same time), and nothing is
+     * called after onError or onComplete.
+     *
+     * @param <T> The type of the items.
+     */
+    public interface Subscriber<T> {
+
+        /**
+         * Called first, with the subscription used to request items.
+         *
+         * @param subscription The subscription.
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Next item (only if requested).
+         *
+         * @param item The item.
+         */
+        void onNext(T item);
+
+        /**
+         * The flow stops because of an error.
+         *
+         * @param throwable The error.
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * The flow is finished, all the items have been sent.
+         */
+        void onComplete();
+    }
+
+    /**
+     * Link between a publisher and a subscriber.
+     */
+    public interface Subscription {
+
+        /**
+         * Ask for more items.
+         *
+         * @param n The number of items (more than 0, else the flow stops with an IllegalArgumentException).
+         */
+        void request(long n);
+
+        /**
+         * Stop the flow (the subscriber can still receive a few items already sent).
+         */
+        void cancel();
+    }
+}
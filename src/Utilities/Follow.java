@@ -0,0 +1,287 @@
+package Utilities;
+
+import SearchPatterns.Cursor;
+import SearchPatterns.MatchListener;
+import SearchPatterns.Searcher;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Properties;
+
+/**
+ * Class Follow.
+ *
+ * Search a pattern into a file which grows (log file), like tail -f : the file is read again
+ * regularly (poll) and only the bytes added since the last read are searched.
+ *
+ * The cursor of the search is kept between the reads, so an occurrence written in two times is found.
+ * After each read, a checkpoint can be saved in a file (properties) :
+ *
+ *      - The file and its key (inode), to detect a rotation while the programme was stopped.
+ *      - The search (algorithm and pattern), the checkpoint is not used for another search.
+ *      - The position in the file (bytes) and the state of the cursor.
+ *
+ * When the programme is started again with the same checkpoint, the search continues where it stopped.
+ *
+ * The rotation of the file is detected :
+ *
+ *      - If the file is replaced (new key), the end of the old file is searched and the new file
+ *        is searched from the beginning (with a new cursor, the positions start again at 0).
+ *
+ *      - If the file is truncated (smaller than the position), it is searched from the beginning.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class Follow {
+
+    public static final long INTERVAL = 1000;   // Time between two reads (ms).
+
+    private Searcher searcher;
+    private Path file;
+    private Path checkpoint;    // File of the checkpoint (null if none).
+    private String search;      // Description of the search (algorithm and pattern).
+
+    private FileChannel channel;    // File being read (null if not opened).
+    private Object fileKey;         // Key of the file being read.
+    private Cursor cursor;
+    private CharsetDecoder decoder;
+    private ByteBuffer bytes = ByteBuffer.allocate(StreamSearch.BUFFER_SIZE);
+    private CharBuffer chars = CharBuffer.allocate(StreamSearch.BUFFER_SIZE);
+    private long offset;            // Position in the file of the first byte not decoded.
+
+    /**
+     * Constructor.
+     *
+     * @param searcher      The search pattern.
+     * @param filename      The file to follow.
+     * @param checkpoint    The file of the checkpoint (null to start at the beginning of the file each time).
+     * @param search        Description of the search (algorithm and pattern), saved in the checkpoint.
+     */
+    public Follow(Searcher searcher, String filename, String checkpoint, String search) {
+        this.searcher = searcher;
+        this.file = Paths.get(filename);
+        this.checkpoint = checkpoint == null ? null : Paths.get(checkpoint);
+        this.search = search;
+    }
+
+    /**
+     * Search the file forever : read the new bytes, wait, read again...
+     *
+     * @param interval  Time between two reads (ms).
+     * @param listener  The listener of the positions of appearances.
+     * @throws IOException If the file can not be read.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void run(long interval, MatchListener listener) throws IOException, InterruptedException {
+        this.load();
+        while (true) {
+            if (this.poll(listener)) {
+                this.save();
+            }
+            Thread.sleep(interval);
+        }
+    }
+
+    /**
+     * Search the bytes added to the file since the last call.
+     *
+     * @param listener  The listener of the positions of appearances.
+     * @return          True if something has been read (or the file has changed).
+     * @throws IOException If the file can not be read.
+     */
+    public boolean poll(MatchListener listener) throws IOException {
+        if (!Files.exists(this.file)) {
+            // Rotation in progress, the new file is not created yet.
+            return false;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(this.file, BasicFileAttributes.class);
+        boolean changed = false;
+        if (this.channel == null) {
+            this.open(attributes.fileKey(), this.offset);
+            changed = true;
+        }
+        else if (!sameKey(this.fileKey, attributes.fileKey())) {
+            // The file has been replaced : end of the old file, then the new one.
+            this.read(listener);
+            this.cursor.end(listener);
+            this.channel.close();
+            this.reset();
+            this.open(attributes.fileKey(), 0);
+            changed = true;
+        }
+        else if (attributes.size() < this.channel.position()) {
+            // The file has been truncated.
+            this.channel.close();
+            this.reset();
+            this.open(attributes.fileKey(), 0);
+            changed = true;
+        }
+        return this.read(listener) || changed;
+    }
+
+    /**
+     * Open the file at a position.
+     *
+     * @param fileKey   The key of the file.
+     * @param offset    The position of the first byte to read.
+     * @throws IOException If the file can not be read.
+     */
+    private void open(Object fileKey, long offset) throws IOException {
+        this.channel = FileChannel.open(this.file, StandardOpenOption.READ);
+        this.fileKey = fileKey;
+        if (offset > this.channel.size()) {
+            // Truncated while the programme was stopped.
+            this.reset();
+            offset = 0;
+        }
+        this.channel.position(offset);
+        this.offset = offset;
+        if (this.cursor == null) {
+            this.cursor = this.searcher.cursor();
+        }
+    }
+
+    /**
+     * Start a new search (new cursor, no byte kept).
+     */
+    private void reset() {
+        this.cursor = null;
+        this.decoder = null;
+        this.bytes.clear();
+        this.offset = 0;
+    }
+
+    /**
+     * Read the new bytes of the file and search them.
+     *
+     * The last bytes of a character cut in two are kept for the next read.
+     *
+     * @param listener  The listener of the positions of appearances.
+     * @return          True if bytes have been read.
+     * @throws IOException If the file can not be read.
+     */
+    private boolean read(MatchListener listener) throws IOException {
+        if (this.decoder == null) {
+            this.decoder = Charset.defaultCharset().newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        boolean read = false;
+        while (this.channel.read(this.bytes) > 0) {
+            read = true;
+            this.bytes.flip();
+            while (true) {
+                boolean full = this.decoder.decode(this.bytes, this.chars, false).isOverflow();
+                this.chars.flip();
+                this.cursor.feed(this.chars, listener);
+                this.chars.clear();
+                if (!full) {
+                    break;
+                }
+            }
+            this.offset = this.channel.position() - this.bytes.remaining();
+            this.bytes.compact();
+        }
+        return read;
+    }
+
+    /**
+     * Load the checkpoint (if it exists and is a checkpoint of the same search and file).
+     *
+     * @throws IOException If the checkpoint can not be read.
+     */
+    private void load() throws IOException {
+        if (this.checkpoint == null || !Files.exists(this.checkpoint)) {
+            return;
+        }
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream(this.checkpoint.toFile());
+        try {
+            properties.load(in);
+        }
+        finally {
+            in.close();
+        }
+        if (!this.search.equals(properties.getProperty("search"))
+                || !this.file.toAbsolutePath().toString().equals(properties.getProperty("file"))) {
+            System.err.println("Checkpoint of another search, ignored: " + this.checkpoint);
+            return;
+        }
+        if (!Files.exists(this.file)) {
+            return;
+        }
+        Object fileKey = Files.readAttributes(this.file, BasicFileAttributes.class).fileKey();
+        if (!String.valueOf(fileKey).equals(properties.getProperty("fileKey"))) {
+            // The file has been replaced while the programme was stopped.
+            return;
+        }
+        Cursor cursor = this.searcher.cursor();
+        try {
+            cursor.restore(properties.getProperty("cursor"));
+        }
+        catch (RuntimeException e) {
+            System.err.println("Invalid checkpoint, ignored: " + this.checkpoint);
+            return;
+        }
+        this.cursor = cursor;
+        this.open(fileKey, Long.parseLong(properties.getProperty("offset")));
+    }
+
+    /**
+     * Save the checkpoint (in a temporary file, which replaces the old checkpoint).
+     *
+     * @throws IOException If the checkpoint can not be written.
+     */
+    private void save() throws IOException {
+        if (this.checkpoint == null || this.channel == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty("file", this.file.toAbsolutePath().toString());
+        properties.setProperty("fileKey", String.valueOf(this.fileKey));
+        properties.setProperty("search", this.search);
+        properties.setProperty("offset", String.valueOf(this.offset));
+        properties.setProperty("cursor", this.cursor.save());
+
+        Path parent = this.checkpoint.toAbsolutePath().getParent();
+        File temporary = File.createTempFile("checkpoint", ".tmp", parent.toFile());
+        OutputStream out = new FileOutputStream(temporary);
+        try {
+            properties.store(out, "Follow " + this.search);
+        }
+        finally {
+            out.close();
+        }
+        Files.move(temporary.toPath(), this.checkpoint, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Compare two file keys (null if the system has no key : the file is never considered replaced).
+     *
+     * @param a The first key.
+     * @param b The second key.
+     * @return  True if the keys are the same.
+     */
+    private static boolean sameKey(Object a, Object b) {
+        return a == null || b == null || a.equals(b);
+    }
+}
@@ -0,0 +1,164 @@
+package Utilities;
+
+/**
+ * Class LineIndex.
+ *
+ * Index of the beginnings of the lines of a text, built while the text is read (each part read
+ * is given to add), so the text is not scanned a second time to find the line of a position.
+ *
+ * The line and the column of a position are found with a binary search on the beginnings of the lines.
+ * Lines and columns start at 1 (like grep). A line ends with '\n' (a '\r' before it is part of the line).
+ *
+ * When the text is not kept (stream), the beginnings of the lines before a position can be
+ * forgotten (trim), only their number is kept.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class LineIndex {
+
+    private long[] starts = new long[1024]; // Beginnings of the lines kept (the first one is always 0 or a kept line).
+    private int size = 1;                   // Number of beginnings kept.
+    private long forgotten = 0;             // Number of lines forgotten before the first one kept.
+    private long length = 0;                // Number of characters indexed.
+
+    /**
+     * Index the next part of the text.
+     *
+     * @param chunk The characters following the ones already indexed.
+     */
+    public void add(CharSequence chunk) {
+        int n = chunk.length();
+        for (int i = 0; i < n; i++) {
+            if (chunk.charAt(i) == '\n') {
+                if (this.size == this.starts.length) {
+                    long[] bigger = new long[this.starts.length * 2];
+                    System.arraycopy(this.starts, 0, bigger, 0, this.size);
+                    this.starts = bigger;
+                }
+                this.starts[this.size++] = this.length + i + 1;
+            }
+        }
+        this.length += n;
+    }
+
+    /**
+     * Index of the line containing a position, in the beginnings kept.
+     *
+     * @param position  The position (not forgotten).
+     * @return          The index in starts.
+     */
+    private int find(long position) {
+        if (position < this.starts[0] || position > this.length) {
+            throw new IndexOutOfBoundsException("Position not indexed: " + position);
+        }
+        // Last beginning <= position.
+        int low = 0;
+        int high = this.size - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (this.starts[middle] <= position) {
+                low = middle;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the line of a position.
+     *
+     * @param position  The position of a character.
+     * @return          The line (starting at 1).
+     */
+    public long line(long position) {
+        return this.forgotten + this.find(position) + 1;
+    }
+
+    /**
+     * Get the column of a position.
+     *
+     * @param position  The position of a character.
+     * @return          The column (starting at 1).
+     */
+    public long column(long position) {
+        return position - this.starts[this.find(position)] + 1;
+    }
+
+    /**
+     * Get the number of lines (a last line without '\n' is counted).
+     *
+     * @return The number of lines.
+     */
+    public long lineCount() {
+        boolean last = this.length > this.starts[this.size - 1] || this.length == 0;
+        return this.forgotten + this.size - (last ? 0 : 1);
+    }
+
+    /**
+     * Get the position of the beginning of a line.
+     *
+     * @param line  The line (starting at 1, not forgotten).
+     * @return      The position of its first character.
+     */
+    public long lineStart(long line) {
+        return this.starts[this.index(line)];
+    }
+
+    /**
+     * Get the position of the end of a line ('\n' not included).
+     *
+     * @param line  The line (starting at 1, not forgotten).
+     * @return      The position after its last character.
+     */
+    public long lineEnd(long line) {
+        int i = this.index(line);
+        return i + 1 < this.size ? this.starts[i + 1] - 1 : this.length;
+    }
+
+    /**
+     * Index of a line in the beginnings kept.
+     *
+     * @param line  The line (starting at 1).
+     * @return      The index in starts.
+     */
+    private int index(long line) {
+        long i = line - 1 - this.forgotten;
+        if (i < 0 || i >= this.size) {
+            throw new IndexOutOfBoundsException("Line not indexed: " + line);
+        }
+        return (int) i;
+    }
+
+    /**
+     * Forget the lines before the one containing a position.
+     * Only the positions after it can be used after that.
+     *
+     * @param position The first position still needed.
+     */
+    public void trim(long position) {
+        if (position <= this.starts[0]) {
+            return;
+        }
+        int first = this.find(Math.min(position, this.length));
+        if (first > 0) {
+            System.arraycopy(this.starts, first, this.starts, 0, this.size - first);
+            this.size -= first;
+            this.forgotten += first;
+        }
+    }
+
+    public static void main(String[] args) {
+        LineIndex index = new LineIndex();
+        index.add("ab\ncd");
+        index.add("e\r\n\nf");
+        // Position 4 ('d') : ligne 2, colonne 2.
+        System.out.println(index.line(4) + ":" + index.column(4));
+        System.out.println(index.lineCount() + " lines");
+        index.trim(9);
+        System.out.println(index.line(9) + ":" + index.column(9));
+    }
+}
@@ -0,0 +1,209 @@
+package Utilities;
+
+import java.util.Arrays;
+
+/**
+ * Class Options.
+ *
+ * Options given before the arguments of the Main programme :
+ *
+ *      -n      Print the line and the column of each occurrence (line:column:text), like grep.
+ *
+ *      -C N    Print N lines of context before and after each line with an occurrence (implies -n).
+ *
+ *      -f      Follow the file (like tail -f) : the bytes added to the file are searched (see Follow).
+ *
+ *      -k FILE Checkpoint of the follow mode, to continue after a restart (implies -f).
+ *
+ *      -b FILE Search all the patterns of a file (see Batch), only the text file is given after the options.
+ *
+ *      -s FILE Save the tables of the pattern into a file (see TableFile).
+ *
+ *      -l FILE Load the tables of a pattern from a file, only the text file (if any) is given after the options.
+ *
+ *      -p N    Search with N processes (see Coordinator), one or more text files are given after the pattern and the algorithm.
+ *
+ *      -r K    Find the substrings repeated at least K times (see RepeatedSubstrings), the length of
+ *              the substrings (0 for the longest) and the text file are given after the options.
+ *
+ *      -d      Search a DNA pattern into the records of a FASTA file, packed with 2 bits per base (see Fasta),
+ *              only the pattern and the file (if any) are given after the options.
+ *
+ * The options end at the first argument which is not an option, or after "--"
+ * (so a pattern starting with '-' can be given).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class Options {
+
+    private boolean lines = false;  // Print line:column.
+    private int context = 0;        // Lines of context.
+    private boolean follow = false; // Follow the file.
+    private String checkpoint;      // Checkpoint of the follow mode (null if none).
+    private String batch;           // File of patterns (null if none).
+    private String save;            // File where the tables are saved (null if none).
+    private String load;            // File where the tables are loaded from (null if none).
+    private int processes = 0;      // Number of processes of the search (0 if in this process).
+    private int repeats = 0;        // Minimal occurrences of the repeated substrings (0 if not searched).
+    private boolean dna = false;    // Search a DNA pattern into a FASTA file.
+
+    /**
+     * Read the options at the beginning of the arguments.
+     *
+     * @param args  The arguments of the programme.
+     * @return      The arguments following the options.
+     * @throws IllegalArgumentException If an option is unknown or has a wrong value.
+     */
+    public String[] parse(String[] args) {
+        int i = 0;
+        while (i < args.length && args[i].startsWith("-") && args[i].length() > 1) {
+            String option = args[i++];
+            if (option.equals("--")) {
+                break;
+            }
+            else if (option.equals("-n")) {
+                this.lines = true;
+            }
+            else if (option.equals("-C")) {
+                if (i == args.length) {
+                    throw new IllegalArgumentException("Option -C needs a number of lines.");
+                }
+                this.context = Integer.parseInt(args[i++]);
+                if (this.context < 0) {
+                    throw new IllegalArgumentException("The number of lines of context can not be negative.");
+                }
+                this.lines = true;
+            }
+            else if (option.equals("-f")) {
+                this.follow = true;
+            }
+            else if (option.equals("-k")) {
+                if (i == args.length) {
+                    throw new IllegalArgumentException("Option -k needs a file.");
+                }
+                this.checkpoint = args[i++];
+                this.follow = true;
+            }
+            else if (option.equals("-b")) {
+                if (i == args.length) {
+                    throw new IllegalArgumentException("Option -b needs a file of patterns.");
+                }
+                this.batch = args[i++];
+            }
+            else if (option.equals("-s") || option.equals("-l")) {
+                if (i == args.length) {
+                    throw new IllegalArgumentException("Option " + option + " needs a file of tables.");
+                }
+                if (option.equals("-s")) {
+                    this.save = args[i++];
+                }
+                else {
+                    this.load = args[i++];
+                }
+            }
+            else if (option.equals("-p")) {
+                if (i == args.length) {
+                    throw new IllegalArgumentException("Option -p needs a number of processes.");
+                }
+                this.processes = Integer.parseInt(args[i++]);
+                if (this.processes < 1) {
+                    throw new IllegalArgumentException("The number of processes must be positive.");
+                }
+            }
+            else if (option.equals("-r")) {
+                if (i == args.length) {
+                    throw new IllegalArgumentException("Option -r needs a number of occurrences.");
+                }
+                this.repeats = Integer.parseInt(args[i++]);
+                if (this.repeats < 2) {
+                    throw new IllegalArgumentException("A substring must be repeated at least 2 times.");
+                }
+            }
+            else if (option.equals("-d")) {
+                this.dna = true;
+            }
+            else {
+                throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        return Arrays.copyOfRange(args, i, args.length);
+    }
+
+    /**
+     * @return True if the line and the column of the occurrences are printed.
+     */
+    public boolean isLines() {
+        return this.lines;
+    }
+
+    /**
+     * @return The number of lines of context.
+     */
+    public int getContext() {
+        return this.context;
+    }
+
+    /**
+     * @return True if the file is followed.
+     */
+    public boolean isFollow() {
+        return this.follow;
+    }
+
+    /**
+     * @return The file of the checkpoint (null if none).
+     */
+    public String getCheckpoint() {
+        return this.checkpoint;
+    }
+
+    /**
+     * @return The file of patterns (null if none).
+     */
+    public String getBatch() {
+        return this.batch;
+    }
+
+    /**
+     * @return The file where the tables are saved (null if none).
+     */
+    public String getSave() {
+        return this.save;
+    }
+
+    /**
+     * @return The file where the tables are loaded from (null if none).
+     */
+    public String getLoad() {
+        return this.load;
+    }
+
+    /**
+     * @return The number of processes of the search (0 if in this process).
+     */
+    public int getProcesses() {
+        return this.processes;
+    }
+
+    /**
+     * @return The minimal number of occurrences of the repeated substrings (0 if not searched).
+     */
+    public int getRepeats() {
+        return this.repeats;
+    }
+
+    /**
+     * @return True if a DNA pattern is searched into a FASTA file.
+     */
+    public boolean isDna() {
+        return this.dna;
+    }
+
+    public static void main(String[] args) {
+        Options options = new Options();
+        String[] rest = options.parse(new String[]{"-C", "2", "--", "-motif", "3", "TestFile.txt"});
+        System.out.println(options.isLines() + " " + options.getContext() + " " + Arrays.toString(rest));
+    }
+}
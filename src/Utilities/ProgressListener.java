@@ -0,0 +1,19 @@
+package Utilities;
+
+/**
+ * Listener of the progress of a search (see SearchPublisher).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public interface ProgressListener {
+
+    /**
+     * Called after each part of the text searched.
+     *
+     * @param bytes The number of bytes already searched.
+     * @param total The size of the text in bytes (-1 if not known).
+     */
+    void progress(long bytes, long total);
+}
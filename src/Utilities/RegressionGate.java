@@ -0,0 +1,615 @@
+package Utilities;
+
+import SearchPatterns.Cursor;
+import SearchPatterns.DnaSearch;
+import SearchPatterns.Engines;
+import SearchPatterns.MatchListener;
+import SearchPatterns.Searcher;
+import SearchPatterns.SuffixAutomaton;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Class RegressionGate.
+ *
+ * Check that the search patterns are still correct and not slower, before and after a change :
+ *
+ *      1. Correctness : every search pattern (1 to 7, the same numbers as in Main) searches random and
+ *         adversarial texts, and its positions are compared with the positions of String.indexOf
+ *         (as Toolbox.printPositionTest does by hand, without overlaps for the regular expressions). The texts are searched at once (searchText),
+ *         and with a cursor, cut into random parts. The suffix automaton (8) is built with the same texts,
+ *         added by parts, and DnaSearch searches DNA texts (with lower case and ambiguous bases).
+ *
+ *         The wildcards (5) and the regular expressions (6) also search random patterns written with their syntax
+ *         (?, [ab], *, *{n} / ., [^a], \d, |, *, +, {n,m}...), and their positions are compared with the positions
+ *         of the same pattern translated for java.util.regex (each start of an occurrence for the wildcards,
+ *         the longest occurrence from the leftmost start, without overlaps, for the regular expressions).
+ *
+ *      2. Throughput : every search pattern searches a big text of each class of inputs, and its best speed
+ *         (characters per millisecond) is compared with the speed saved in a file (baseline, properties).
+ *         The gate fails if a speed is lower than the baseline by more than the threshold.
+ *
+ * The classes of inputs :
+ *
+ *      random      Letters a-z.
+ *      binary      Two letters (many partial matches).
+ *      periodic    Periodic texts and patterns (aaaa, abab, aabaaab), with a few changes.
+ *      boundary    Occurrences at the start and the end of the text, text as long as the pattern or shorter,
+ *                  lines ending with \r\n (as in TestFile.txt). Only for the correctness.
+ *      unicode     Accents, symbols and surrogate pairs.
+ *
+ * The patterns of these classes only contain letters, so they mean the same for the wildcards (5) and the
+ * regular expressions (6).
+ *
+ *      java Utilities.RegressionGate [-record] <baseline> [threshold]
+ *
+ * The baseline is only saved with -record (on the machine where the gate runs), and only if every position
+ * is right : without it, a missing baseline is an error, so the gate never passes without comparing the speeds.
+ * The threshold is a fraction (0.2 by default).
+ * Exit code 1 if a position is wrong, a speed is too low or the baseline is missing.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class RegressionGate {
+
+    public static final double THRESHOLD = 0.2;    // Slowdown allowed (fraction of the baseline).
+    private static final int[] ALGOS = {1, 2, 3, 4, 5, 6, 7};
+    private static final String[] CLASSES = {"random", "binary", "periodic", "boundary", "unicode"};
+    private static final int CASES = 300;          // Texts searched by class and search pattern.
+    private static final int SIZE = 4 * 1024 * 1024;   // Characters of the texts of the throughput.
+    private static final int WARMUP = 2;           // Searches before the measures.
+    private static final int RUNS = 10;            // Measures (the best one is kept).
+    private static final long SEED = 42;           // Same inputs for the baseline and the checks.
+    private static final int SYNTAX_LENGTH = 60;   // Longest text searched with the syntax (java.util.regex is slower).
+
+    // Parts of the random patterns written with the syntax of the wildcards and of the regular expressions.
+    private static final String[] WILDCARDS = {"a", "b", "c", "?", "*", "*{2}", "*{1}", "[ab]", "[^a]", "[a-c]", "\\?"};
+    private static final String[] ATOMS = {"a", "b", "c", ".", "[ab]", "[^a]", "\\d", "(a|bc)", "(?:ab)"};
+    private static final String[] REPEATS = {"", "", "", "*", "+", "?", "{2}", "{1,3}", "{0,2}", "{2,}"};
+
+    /**
+     * Check the positions of all the search patterns.
+     *
+     * @return The number of wrong searches.
+     */
+    public int checkCorrectness() {
+        Random random = new Random(SEED);
+        int failures = 0;
+        for (String inputClass : CLASSES) {
+            for (int c = 0; c < CASES; c++) {
+                String[] input = generate(inputClass, random, 1 + random.nextInt(200));
+                for (int algo : ALGOS) {
+                    // The occurrences of the regular expressions do not overlap (see Regex).
+                    int step = algo == 6 ? input[1].length() : 1;
+                    if (!this.check(algo, inputClass, input[0], input[1], positions(input[0], input[1], step), random)) {
+                        failures++;
+                    }
+                }
+                if (!this.checkSuffixAutomaton(inputClass, input[0], input[1], random)) {
+                    failures++;
+                }
+            }
+        }
+        for (int c = 0; c < CASES; c++) {
+            if (!this.checkDna(random)) {
+                failures++;
+            }
+        }
+        for (int c = 0; c < CASES; c++) {
+            StringBuilder text = new StringBuilder();
+            append(text, "abc1 \n", random, random.nextInt(SYNTAX_LENGTH));
+            String wildcard = wildcard(random);
+            if (!this.check(5, "syntax", text.toString(), wildcard, wildcardPositions(wildcard, text.toString()), random)) {
+                failures++;
+            }
+            String regex = regex(random);
+            if (!this.check(6, "syntax", text.toString(), regex, regexPositions(regex, text.toString()), random)) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Check the positions of a search pattern on a text.
+     *
+     * @param algo          The number of the algorithm.
+     * @param inputClass    The class of the input (for the message).
+     * @param text          The text.
+     * @param pattern       The pattern.
+     * @param expected      The positions expected.
+     * @param random        The random generator (for the parts of the text given to the cursor).
+     * @return              True if the positions are the expected ones.
+     */
+    private boolean check(int algo, String inputClass, String text, String pattern, ArrayList<Integer> expected,
+                          Random random) {
+        ArrayList<Integer> whole;
+        final ArrayList<Integer> parts = new ArrayList<Integer>();
+        try {
+            Searcher searcher = Engines.create(algo, pattern);
+            whole = searcher.searchText(text);
+            MatchListener output = new MatchListener() {
+                @Override
+                public void match(long position) {
+                    parts.add((int) position);
+                }
+            };
+            Cursor cursor = searcher.cursor();
+            int start = 0;
+            while (start < text.length()) {
+                int end = Math.min(text.length(), start + 1 + random.nextInt(Math.max(1, pattern.length() * 2)));
+                cursor.feed(text.subSequence(start, end), output);
+                start = end;
+            }
+            cursor.end(output);
+        }
+        catch (RuntimeException e) {
+            System.out.println("FAIL " + algo + " " + inputClass + " \"" + escape(pattern) + "\" in \""
+                    + escape(text) + "\": " + e);
+            return false;
+        }
+        if (!expected.equals(whole) || !expected.equals(parts)) {
+            System.out.println("FAIL " + algo + " " + inputClass + " \"" + escape(pattern) + "\" in \""
+                    + escape(text) + "\": expected " + expected + ", found " + whole + ", by parts " + parts);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check the suffix automaton of a text : the positions, the number, the first and the last occurrence of a pattern.
+     *
+     * @param inputClass    The class of the input (for the message).
+     * @param text          The text, added to the automaton by random parts.
+     * @param pattern       The pattern.
+     * @param random        The random generator.
+     * @return              True if the results are the same as with String.indexOf.
+     */
+    private boolean checkSuffixAutomaton(String inputClass, String text, String pattern, Random random) {
+        ArrayList<Integer> expected = positions(text, pattern, 1);
+        String found;
+        try {
+            SuffixAutomaton automaton = new SuffixAutomaton();
+            int start = 0;
+            while (start < text.length()) {
+                int end = Math.min(text.length(), start + 1 + random.nextInt(Math.max(1, pattern.length() * 2)));
+                automaton.append(text.subSequence(start, end));
+                start = end;
+            }
+            ArrayList<Integer> positions = automaton.search(pattern);
+            int first = expected.isEmpty() ? -1 : expected.get(0);
+            int last = expected.isEmpty() ? -1 : expected.get(expected.size() - 1);
+            if (expected.equals(positions) && automaton.count(pattern) == expected.size()
+                    && automaton.first(pattern) == first && automaton.last(pattern) == last
+                    && automaton.contains(pattern) == !expected.isEmpty()) {
+                return true;
+            }
+            found = positions + ", count " + automaton.count(pattern) + ", first " + automaton.first(pattern)
+                    + ", last " + automaton.last(pattern);
+        }
+        catch (RuntimeException e) {
+            found = e.toString();
+        }
+        System.out.println("FAIL 8 " + inputClass + " \"" + escape(pattern) + "\" in \"" + escape(text)
+                + "\": expected " + expected + ", found " + found);
+        return false;
+    }
+
+    /**
+     * Check DnaSearch on a random DNA text (lower case bases and ambiguous bases), with a pattern of the text
+     * or a random one, packed into a long or searched with the automaton.
+     *
+     * @param random    The random generator.
+     * @return          True if the positions are the same as with String.indexOf (the case is ignored).
+     */
+    private boolean checkDna(Random random) {
+        StringBuilder text = new StringBuilder();
+        append(text, random.nextBoolean() ? "ACGTacgtN" : "ACa", random, 1 + random.nextInt(300));
+        int m = 1 + random.nextInt(Math.min(text.length(), DnaSearch.PACKED + 8));
+        StringBuilder pattern = new StringBuilder();
+        if (random.nextBoolean()) {
+            int start = random.nextInt(text.length() - m + 1);
+            pattern.append(text.substring(start, start + m).toUpperCase().replace('N', 'A'));
+        }
+        else {
+            append(pattern, "ACGT", random, m);
+        }
+        ArrayList<Integer> expected = positions(text.toString().toUpperCase(), pattern.toString(), 1);
+        String found;
+        try {
+            ArrayList<Integer> positions = new DnaSearch(pattern.toString()).searchText(text);
+            if (expected.equals(positions)) {
+                return true;
+            }
+            found = positions.toString();
+        }
+        catch (RuntimeException e) {
+            found = e.toString();
+        }
+        System.out.println("FAIL dna \"" + pattern + "\" in \"" + escape(text.toString()) + "\": expected "
+                + expected + ", found " + found);
+        return false;
+    }
+
+    /**
+     * Find the positions of a pattern with String.indexOf.
+     *
+     * @param text      The text.
+     * @param pattern   The pattern.
+     * @param step      The characters after a position where the next occurrence can start
+     *                  (1 with overlaps, the length of the pattern without).
+     * @return          The positions.
+     */
+    private static ArrayList<Integer> positions(String text, String pattern, int step) {
+        ArrayList<Integer> positions = new ArrayList<Integer>();
+        int index = text.indexOf(pattern);
+        while (index >= 0) {
+            positions.add(index);
+            index = text.indexOf(pattern, index + step);
+        }
+        return positions;
+    }
+
+    /**
+     * Find the positions of a wildcard pattern with java.util.regex : each position where an occurrence starts
+     * (with '*', an occurrence does not go past the end of its line).
+     *
+     * @param pattern   The pattern (syntax of WildcardFSM).
+     * @param text      The text.
+     * @return          The positions.
+     */
+    private static ArrayList<Integer> wildcardPositions(String pattern, String text) {
+        StringBuilder regex = new StringBuilder();
+        boolean lines = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '?') {
+                regex.append("(?s:.)");
+            }
+            else if (c == '*' && i + 1 < pattern.length() && pattern.charAt(i + 1) == '{') {
+                int end = pattern.indexOf('}', i);
+                regex.append("(?s:.){0,").append(pattern, i + 2, end).append('}');
+                i = end;
+            }
+            else if (c == '*') {
+                regex.append("[^\\n]*");
+                lines = true;
+            }
+            else if (c == '[') {
+                int end = pattern.indexOf(']', i + 2);
+                regex.append(pattern, i, end + 1);
+                i = end;
+            }
+            else {
+                if (c == '\\') {
+                    c = pattern.charAt(++i);
+                }
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        Matcher matcher = Pattern.compile(regex.toString()).matcher(text);
+        ArrayList<Integer> positions = new ArrayList<Integer>();
+        for (int start = 0; start < text.length(); start++) {
+            int line = text.indexOf('\n', start);
+            matcher.region(start, lines && line != -1 ? line + 1 : text.length());
+            if (matcher.lookingAt()) {
+                positions.add(start);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Find the positions of a regular expression with java.util.regex : the longest occurrence (not empty) starting
+     * at the leftmost position, up to the end of its line, then the next one after it.
+     *
+     * @param pattern   The regular expression (the syntax of Regex is a part of the syntax of java.util.regex).
+     * @param text      The text.
+     * @return          The positions.
+     */
+    private static ArrayList<Integer> regexPositions(String pattern, String text) {
+        // Only '\n' is an end of line for '.', as in Regex.
+        Matcher matcher = Pattern.compile(pattern, Pattern.UNIX_LINES).matcher(text);
+        ArrayList<Integer> positions = new ArrayList<Integer>();
+        int start = 0;
+        while (start < text.length()) {
+            // An occurrence does not go past the end of its line.
+            int line = text.indexOf('\n', start);
+            int end = line == -1 ? text.length() : line + 1;
+            matcher.region(start, end);
+            while (end > start && !matcher.matches()) {
+                end--;
+                matcher.region(start, end);
+            }
+            if (end == start) {
+                start++;
+            }
+            else {
+                positions.add(start);
+                start = end;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Generate a wildcard pattern, with at least one character (a pattern of gaps is not valid).
+     *
+     * @param random    The random generator.
+     * @return          The pattern.
+     */
+    private static String wildcard(Random random) {
+        StringBuilder pattern = new StringBuilder();
+        boolean character = false;
+        for (int i = 1 + random.nextInt(5); i > 0; i--) {
+            String element = WILDCARDS[random.nextInt(WILDCARDS.length)];
+            character |= !element.startsWith("*");
+            pattern.append(element);
+        }
+        if (!character) {
+            pattern.append('a');
+        }
+        return pattern.toString();
+    }
+
+    /**
+     * Generate a regular expression : a few atoms, each one repeated or not, sometimes an alternation.
+     *
+     * @param random    The random generator.
+     * @return          The regular expression.
+     */
+    private static String regex(Random random) {
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            pattern.append(ATOMS[random.nextInt(ATOMS.length)]).append(REPEATS[random.nextInt(REPEATS.length)]);
+            if (i > 1 && random.nextInt(8) == 0) {
+                pattern.append('|');
+            }
+        }
+        return pattern.toString();
+    }
+
+    /**
+     * Measure the speed of all the search patterns on each class of inputs (except boundary).
+     *
+     * @return The speeds (characters per millisecond), with the keys "algo.class".
+     */
+    public Properties measure() {
+        Properties speeds = new Properties();
+        Random random = new Random(SEED);
+        for (String inputClass : CLASSES) {
+            if (inputClass.equals("boundary")) {
+                continue;
+            }
+            String[] input = generate(inputClass, random, SIZE);
+            for (int algo : ALGOS) {
+                Searcher searcher = Engines.create(algo, input[1]);
+                long best = Long.MAX_VALUE;
+                for (int run = 0; run < WARMUP + RUNS; run++) {
+                    long start = System.nanoTime();
+                    searcher.searchText(input[0]);
+                    long time = System.nanoTime() - start;
+                    if (run >= WARMUP) {
+                        best = Math.min(best, time);
+                    }
+                }
+                long speed = (long) (input[0].length() / (Math.max(best, 1) / 1e6));
+                speeds.setProperty(algo + "." + inputClass, Long.toString(speed));
+            }
+        }
+        return speeds;
+    }
+
+    /**
+     * Compare the speeds with the baseline.
+     *
+     * @param speeds    The speeds measured.
+     * @param baseline  The speeds of the baseline.
+     * @param threshold The slowdown allowed (fraction of the baseline).
+     * @return          The number of speeds too low.
+     */
+    public int compare(Properties speeds, Properties baseline, double threshold) {
+        int regressions = 0;
+        for (String inputClass : CLASSES) {
+            for (int algo : ALGOS) {
+                String key = algo + "." + inputClass;
+                if (speeds.getProperty(key) == null) {
+                    continue;
+                }
+                long speed = Long.parseLong(speeds.getProperty(key));
+                String line = key + " " + speed + " chars/ms";
+                if (baseline.getProperty(key) != null) {
+                    long reference = Long.parseLong(baseline.getProperty(key));
+                    line += String.format(" (baseline %d, %+.1f%%)", reference, (speed - reference) * 100.0 / reference);
+                    if (speed < reference * (1 - threshold)) {
+                        line += " REGRESSION";
+                        regressions++;
+                    }
+                }
+                System.out.println(line);
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Generate a text and a pattern of a class of inputs.
+     *
+     * @param inputClass    The class of the input.
+     * @param random        The random generator.
+     * @param length        The length of the text (about).
+     * @return              The text and the pattern.
+     */
+    private static String[] generate(String inputClass, Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        String pattern;
+        if (inputClass.equals("random") || inputClass.equals("binary")) {
+            String alphabet = inputClass.equals("random") ? "abcdefghijklmnopqrstuvwxyz" : "ab";
+            append(text, alphabet, random, length);
+            // A pattern of the text (found at least once), or a random one.
+            int m = 1 + random.nextInt(Math.min(length, 16));
+            if (random.nextBoolean()) {
+                int start = random.nextInt(length - m + 1);
+                pattern = text.substring(start, start + m);
+            }
+            else {
+                StringBuilder p = new StringBuilder();
+                append(p, alphabet, random, m);
+                pattern = p.toString();
+            }
+        }
+        else if (inputClass.equals("periodic")) {
+            String[] periods = {"a", "ab", "aab", "aabaaab", "abaab"};
+            String period = periods[random.nextInt(periods.length)];
+            while (text.length() < length) {
+                text.append(period);
+            }
+            text.setLength(length);
+            // A few characters changed, to break the period.
+            for (int i = random.nextInt(3); i > 0; i--) {
+                text.setCharAt(random.nextInt(length), 'b');
+            }
+            StringBuilder p = new StringBuilder();
+            int m = 1 + random.nextInt(Math.min(length, 24));
+            while (p.length() < m) {
+                p.append(periods[random.nextInt(periods.length)]);
+            }
+            p.setLength(m);
+            pattern = p.toString();
+        }
+        else if (inputClass.equals("boundary")) {
+            StringBuilder p = new StringBuilder();
+            append(p, "abc", random, 1 + random.nextInt(8));
+            pattern = p.toString();
+            switch (random.nextInt(4)) {
+                case 0:
+                    // The text is the pattern, or a part of it.
+                    text.append(pattern, 0, random.nextInt(pattern.length()) + 1);
+                    break;
+                case 1:
+                    // At the start and at the end.
+                    text.append(pattern);
+                    append(text, "abc", random, random.nextInt(length));
+                    text.append(pattern);
+                    break;
+                default:
+                    // Lines ending with \r\n, as in TestFile.txt, the pattern at the end of some lines.
+                    while (text.length() < length) {
+                        append(text, "abc ", random, random.nextInt(20));
+                        if (random.nextBoolean()) {
+                            text.append(pattern);
+                        }
+                        text.append("\r\n");
+                    }
+                    break;
+            }
+        }
+        else {
+            String alphabet = "aé€\uD834\uDD1E";
+            append(text, alphabet, random, length);
+            StringBuilder p = new StringBuilder();
+            append(p, alphabet, random, 1 + random.nextInt(6));
+            pattern = p.toString();
+        }
+        return new String[]{text.toString(), pattern};
+    }
+
+    /**
+     * Append random characters (a surrogate pair is appended as a whole).
+     *
+     * @param text      The text.
+     * @param alphabet  The characters.
+     * @param random    The random generator.
+     * @param length    The number of characters.
+     */
+    private static void append(StringBuilder text, String alphabet, Random random, int length) {
+        int end = text.length() + length;
+        while (text.length() < end) {
+            int i = random.nextInt(alphabet.length());
+            if (Character.isLowSurrogate(alphabet.charAt(i))) {
+                i--;
+            }
+            text.append(alphabet.charAt(i));
+            if (Character.isHighSurrogate(alphabet.charAt(i))) {
+                text.append(alphabet.charAt(i + 1));
+            }
+        }
+    }
+
+    /**
+     * Escape a text for a message (end of lines, long texts cut).
+     *
+     * @param text  The text.
+     * @return      The text escaped.
+     */
+    private static String escape(String text) {
+        String s = text.length() > 80 ? text.substring(0, 80) + "..." : text;
+        return s.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean record = args.length > 0 && args[0].equals("-record");
+        int first = record ? 1 : 0;
+        if (args.length - first < 1 || args.length - first > 2) {
+            System.err.println("usage: java Utilities.RegressionGate [-record] <fichier_reference> [seuil]");
+            System.exit(1);
+        }
+        File file = new File(args[first]);
+        double threshold = args.length - first == 2 ? Double.parseDouble(args[first + 1]) : THRESHOLD;
+        if (!record && !file.isFile()) {
+            System.err.println("Baseline not found: " + file + " (save it with -record)");
+            System.exit(1);
+        }
+
+        RegressionGate gate = new RegressionGate();
+        // Positions verifiees avant les mesures : une recherche fausse n'a pas de vitesse.
+        int failures = gate.checkCorrectness();
+        System.out.println(failures == 0 ? "Correctness: OK" : "Correctness: " + failures + " failures");
+        // Pas de reference enregistree avec des positions fausses.
+        if (record && failures > 0) {
+            System.err.println("Baseline not saved: " + file);
+            System.exit(1);
+        }
+
+        Properties speeds = gate.measure();
+        Properties baseline = new Properties();
+        if (!record) {
+            InputStream in = new FileInputStream(file);
+            try {
+                baseline.load(in);
+            }
+            finally {
+                in.close();
+            }
+        }
+        int regressions = gate.compare(speeds, baseline, threshold);
+        if (record) {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                speeds.store(out, "Throughput of the search patterns (characters per millisecond)");
+            }
+            finally {
+                out.close();
+            }
+            System.out.println("Baseline saved in " + file);
+        }
+        else {
+            System.out.println(regressions == 0 ? "Throughput: OK" : "Throughput: " + regressions + " regressions");
+        }
+        if (failures > 0 || regressions > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package Utilities;
+
+/**
+ * Exception sent when a search stops before the end of the text, because it has used all
+ * its time or all its bytes (see SearchPublisher).
+ *
+ * The positions already sent are valid, but the search is not complete.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class SearchBudgetException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private long bytes;
+
+    /**
+     * Constructor.
+     *
+     * @param message   The budget exceeded.
+     * @param bytes     The number of bytes searched before the end.
+     */
+    public SearchBudgetException(String message, long bytes) {
+        super(message + " after " + bytes + " bytes");
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return The number of bytes searched before the end.
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+}
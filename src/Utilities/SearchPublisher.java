@@ -0,0 +1,425 @@
+package Utilities;
+
+import SearchPatterns.Cursor;
+import SearchPatterns.Engines;
+import SearchPatterns.MatchListener;
+import SearchPatterns.Searcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class SearchPublisher.
+ *
+ * Search a pattern into a file or a stream, and send the positions of appearances to a subscriber
+ * (see Flow) as soon as they are found. Works with every search pattern (with its cursor).
+ *
+ *      - Backpressure : the positions are only sent when the subscriber requests them. When the
+ *        subscriber doesn't request more, the search waits (only the positions found in the
+ *        last part of the text are kept).
+ *
+ *      - Cancellation : the search stops at the end of the current part when the subscription is cancelled.
+ *
+ *      - Budgets : a time and a number of bytes can be given. The time is checked before each part of the
+ *        text, before each position sent, and while waiting for the subscriber. The bytes up to the budget
+ *        are searched (their positions are sent), then the search stops if the text has more bytes.
+ *        When a budget is exceeded, the search stops with a SearchBudgetException (onError).
+ *
+ *      - Progress : a listener receives the number of bytes searched (and the size of the file) after each part.
+ *
+ * The search runs on another thread (a new thread, or the executor given). A publisher can only
+ * be subscribed once, since the stream is read by the search.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class SearchPublisher implements Flow.Publisher<Long> {
+
+    private Searcher searcher;
+    private String filename;        // File to search (null if a stream).
+    private InputStream in;         // Stream to search (null if a file).
+    private long total = -1;        // Size of the text in bytes (-1 if not known).
+    private long timeBudget = 0;    // Time budget in ms (0 if none).
+    private long byteBudget = 0;    // Bytes budget (0 if none).
+    private ProgressListener progress;
+    private Executor executor;
+    private boolean subscribed = false;
+
+    /**
+     * Constructor with a file.
+     *
+     * @param searcher  The search pattern.
+     * @param filename  The file to look into.
+     */
+    public SearchPublisher(Searcher searcher, String filename) {
+        this.searcher = searcher;
+        this.filename = filename;
+    }
+
+    /**
+     * Constructor with a stream.
+     *
+     * @param searcher  The search pattern.
+     * @param in        The stream to look into.
+     * @param total     The size of the stream in bytes (-1 if not known), for the progress.
+     */
+    public SearchPublisher(Searcher searcher, InputStream in, long total) {
+        this.searcher = searcher;
+        this.in = in;
+        this.total = total;
+    }
+
+    /**
+     * Set the time budget of the search (from the subscription).
+     *
+     * @param milliseconds The time budget (0 for none).
+     */
+    public void setTimeBudget(long milliseconds) {
+        this.timeBudget = milliseconds;
+    }
+
+    /**
+     * Set the maximal number of bytes searched.
+     *
+     * @param bytes The bytes budget (0 for none).
+     */
+    public void setByteBudget(long bytes) {
+        this.byteBudget = bytes;
+    }
+
+    /**
+     * Set the listener of the progress.
+     *
+     * @param progress The listener (null for none).
+     */
+    public void setProgressListener(ProgressListener progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Set the executor which runs the search (else a new thread is created).
+     *
+     * @param executor The executor (null for a new thread).
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super Long> subscriber) {
+        final SearchSubscription subscription = new SearchSubscription(subscriber);
+        synchronized (this) {
+            if (this.subscribed) {
+                subscriber.onSubscribe(subscription);
+                subscriber.onError(new IllegalStateException("The search can only be subscribed once."));
+                return;
+            }
+            this.subscribed = true;
+        }
+        final long deadline = this.timeBudget > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeBudget) : 0;
+        subscriber.onSubscribe(subscription);
+        Runnable search = new Runnable() {
+            @Override
+            public void run() {
+                SearchPublisher.this.run(subscription, deadline);
+            }
+        };
+        if (this.executor != null) {
+            this.executor.execute(search);
+        }
+        else {
+            Thread thread = new Thread(search, "search");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Search the text and send the positions (run by the thread of the search).
+     *
+     * @param subscription  The subscription.
+     * @param deadline      The end of the time budget (System.nanoTime, 0 if none).
+     */
+    private void run(SearchSubscription subscription, long deadline) {
+        ReadableByteChannel channel = null;
+        try {
+            if (this.filename != null) {
+                FileChannel file = FileChannel.open(Paths.get(this.filename), StandardOpenOption.READ);
+                this.total = file.size();
+                channel = file;
+            }
+            else {
+                channel = Channels.newChannel(this.in);
+            }
+            Cursor cursor = this.searcher.cursor();
+            CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer bytes = ByteBuffer.allocate(StreamSearch.BUFFER_SIZE);
+            CharBuffer chars = CharBuffer.allocate(StreamSearch.BUFFER_SIZE);
+            long read = 0;
+
+            boolean end = false;
+            while (!end) {
+                if (deadline != 0 && System.nanoTime() - deadline > 0) {
+                    throw new SearchBudgetException("Time budget exceeded", read);
+                }
+                if (this.byteBudget > 0) {
+                    // One more byte than the budget, to know if the budget is exceeded.
+                    bytes.limit((int) Math.min(bytes.capacity(), bytes.position() + this.byteBudget - read + 1));
+                }
+                int count = channel.read(bytes);
+                end = count == -1;
+                read += Math.max(count, 0);
+                boolean exceeded = this.byteBudget > 0 && read > this.byteBudget;
+                if (exceeded) {
+                    // The byte after the budget is not searched : it only shows that the text is longer.
+                    bytes.position(bytes.position() - (int) (read - this.byteBudget));
+                    count -= (int) (read - this.byteBudget);
+                    read = this.byteBudget;
+                }
+                bytes.flip();
+                while (true) {
+                    boolean full = decoder.decode(bytes, chars, end).isOverflow();
+                    if (end && !full) {
+                        full = decoder.flush(chars).isOverflow();
+                    }
+                    chars.flip();
+                    cursor.feed(chars, subscription);
+                    chars.clear();
+                    if (!subscription.drain(deadline, read)) {
+                        return;
+                    }
+                    if (!full) {
+                        break;
+                    }
+                }
+                bytes.compact();
+                if (this.progress != null && count > 0) {
+                    this.progress.progress(read, this.total);
+                }
+                if (exceeded) {
+                    // The occurrences in the bytes searched are sent before the error.
+                    cursor.end(subscription);
+                    if (!subscription.drain(deadline, read)) {
+                        return;
+                    }
+                    throw new SearchBudgetException("Bytes budget exceeded", this.byteBudget);
+                }
+            }
+            cursor.end(subscription);
+            if (subscription.drain(deadline, read)) {
+                subscription.complete(null);
+            }
+        }
+        catch (IOException e) {
+            subscription.complete(e);
+        }
+        catch (SearchBudgetException e) {
+            subscription.complete(e);
+        }
+        catch (InterruptedException e) {
+            subscription.complete(e);
+        }
+        finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                }
+                catch (IOException e) {
+                    // The search is finished.
+                }
+            }
+        }
+    }
+
+    /**
+     * Subscription of a search.
+     *
+     * The positions found in a part of the text are kept (pending) until they are requested.
+     * Only the thread of the search sends them to the subscriber.
+     */
+    private static class SearchSubscription implements Flow.Subscription, MatchListener {
+        private Flow.Subscriber<? super Long> subscriber;
+        private ArrayDeque<Long> pending = new ArrayDeque<Long>();  // Positions found, not sent yet.
+        private long demand = 0;                // Positions requested, not sent yet.
+        private boolean cancelled = false;
+        private IllegalArgumentException error; // Invalid request.
+
+        private SearchSubscription(Flow.Subscriber<? super Long> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                this.error = new IllegalArgumentException("The number of items requested must be positive: " + n);
+                this.cancelled = true;
+            }
+            else {
+                this.demand = this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n;
+            }
+            this.notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            this.cancelled = true;
+            this.notifyAll();
+        }
+
+        @Override
+        public void match(long position) {
+            this.pending.add(position);
+        }
+
+        /**
+         * Send the pending positions, waiting for the requests of the subscriber.
+         *
+         * @param deadline  The end of the time budget (System.nanoTime, 0 if none).
+         * @param read      The number of bytes read (for the exception).
+         * @return          False if the subscription is cancelled.
+         * @throws InterruptedException If the thread is interrupted while waiting.
+         * @throws SearchBudgetException If the time budget is exceeded while waiting.
+         */
+        private boolean drain(long deadline, long read) throws InterruptedException, SearchBudgetException {
+            while (!this.pending.isEmpty()) {
+                if (!this.await(deadline, read)) {
+                    return this.stop();
+                }
+                this.subscriber.onNext(this.pending.poll());
+            }
+            synchronized (this) {
+                if (!this.cancelled) {
+                    return true;
+                }
+            }
+            return this.stop();
+        }
+
+        /**
+         * Wait for a request of the subscriber, and take it.
+         *
+         * @param deadline  The end of the time budget (System.nanoTime, 0 if none).
+         * @param read      The number of bytes read (for the exception).
+         * @return          False if the subscription is cancelled.
+         * @throws InterruptedException If the thread is interrupted while waiting.
+         * @throws SearchBudgetException If the time budget is exceeded while waiting.
+         */
+        private synchronized boolean await(long deadline, long read) throws InterruptedException, SearchBudgetException {
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                if (deadline != 0 && remaining <= 0) {
+                    throw new SearchBudgetException("Time budget exceeded", read);
+                }
+                if (this.demand > 0 || this.cancelled) {
+                    break;
+                }
+                if (deadline == 0) {
+                    this.wait();
+                }
+                else {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            }
+            if (this.cancelled) {
+                return false;
+            }
+            this.demand--;
+            return true;
+        }
+
+        /**
+         * The subscription is cancelled : send the error of an invalid request (if any).
+         *
+         * @return False.
+         */
+        private boolean stop() {
+            IllegalArgumentException error;
+            synchronized (this) {
+                error = this.error;
+                this.error = null;
+            }
+            if (error != null) {
+                this.subscriber.onError(error);
+            }
+            return false;
+        }
+
+        /**
+         * End of the search : send onComplete (or onError), if the subscription is not cancelled.
+         *
+         * @param error The error (null if the search is complete).
+         */
+        private void complete(Exception error) {
+            synchronized (this) {
+                if (this.cancelled) {
+                    return;
+                }
+                this.cancelled = true;
+            }
+            if (error != null) {
+                this.subscriber.onError(error);
+            }
+            else {
+                this.subscriber.onComplete();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        SearchPublisher publisher = new SearchPublisher(Engines.create(3, "ababaca"), "TestFile.txt");
+        publisher.setTimeBudget(1000);
+        publisher.setProgressListener(new ProgressListener() {
+            @Override
+            public void progress(long bytes, long total) {
+                System.out.println(bytes + "/" + total + " bytes");
+            }
+        });
+        final CountDownLatch done = new CountDownLatch(1);
+        publisher.subscribe(new Flow.Subscriber<Long>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Long position) {
+                System.out.print(position + " ");
+                // Une position a la fois.
+                this.subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                System.out.println(throwable);
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                System.out.println();
+                done.countDown();
+            }
+        });
+        done.await();
+    }
+}
@@ -0,0 +1,260 @@
+package Utilities;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class SearchStats.
+ *
+ * Counters of the search patterns, to understand why a search is slow on a given text :
+ *
+ *      - Number of characters scanned and time spent (throughput).
+ *
+ *      - Comparisons of characters and verifications (RabinKarp : hash hits, and spurious hits
+ *        when the text doesn't match; Regex : searches of the longest occurrence from a first character).
+ *
+ *      - Shifts (BoyerMoore and TwoWay), with a histogram of their lengths (the value at i counts
+ *        the shifts between 2^i and 2^(i+1) - 1), and the table which gave the shift (BoyerMoore).
+ *
+ *      - Visits of each state of the automaton (FSM and WildcardFSM, its reversed automaton without a fixed length).
+ *
+ * The counters are disabled by default. They are enabled with -Dsearchpatterns.stats=true.
+ * Since ENABLED is a constant, the tests on it are removed by the compiler (JIT) when disabled,
+ * so the search loops are not slower. The search patterns count in local variables and add
+ * their counts at the end of each search.
+ *
+ * There is one instance per search pattern, registered in JMX as SearchPatterns:type=SearchStats,engine=name.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class SearchStats implements SearchStatsMBean {
+
+    public static final boolean ENABLED = Boolean.getBoolean("searchpatterns.stats");
+
+    private static final Map<String, SearchStats> ALL = new TreeMap<String, SearchStats>();
+
+    private String engine;
+    private long searches;
+    private long charsScanned;
+    private long nanos;
+    private long comparisons;
+    private long verifications;
+    private long spuriousHits;
+    private long shifts;
+    private long charTableShifts;
+    private long suffixTableShifts;
+    private long[] shiftHistogram = new long[32];
+    private long[] stateVisits = new long[0];
+
+    private SearchStats(String engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Get the counters of a search pattern (they are created and registered in JMX the first time).
+     *
+     * @param engine    The name of the search pattern.
+     * @return          The counters.
+     */
+    public static SearchStats get(String engine) {
+        synchronized (ALL) {
+            SearchStats stats = ALL.get(engine);
+            if (stats == null) {
+                stats = new SearchStats(engine);
+                ALL.put(engine, stats);
+                try {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(stats,
+                            new ObjectName("SearchPatterns:type=SearchStats,engine=" + engine));
+                }
+                catch (JMException e) {
+                    // The counters are still available without JMX.
+                }
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Add the counts of a search.
+     *
+     * @param chars         Number of characters scanned.
+     * @param nanos         Time spent (nanoseconds).
+     * @param comparisons   Number of comparisons of characters.
+     * @param verifications Number of verifications.
+     * @param spuriousHits  Number of verifications which failed.
+     */
+    public synchronized void addSearch(long chars, long nanos, long comparisons, long verifications,
+                                       long spuriousHits) {
+        this.searches++;
+        this.charsScanned += chars;
+        this.nanos += nanos;
+        this.comparisons += comparisons;
+        this.verifications += verifications;
+        this.spuriousHits += spuriousHits;
+    }
+
+    /**
+     * Add the shifts of a search.
+     *
+     * @param histogram         Number of shifts for each length (index i : 2^i to 2^(i+1) - 1).
+     * @param charTableShifts   Number of shifts given by the table of characters.
+     * @param suffixTableShifts Number of shifts given by the table of suffixes.
+     */
+    public synchronized void addShifts(long[] histogram, long charTableShifts, long suffixTableShifts) {
+        for (int i = 0; i < histogram.length; i++) {
+            this.shiftHistogram[i] += histogram[i];
+            this.shifts += histogram[i];
+        }
+        this.charTableShifts += charTableShifts;
+        this.suffixTableShifts += suffixTableShifts;
+    }
+
+    /**
+     * Add the visits of the states of an automaton.
+     *
+     * @param visits Number of visits of each state.
+     */
+    public synchronized void addStateVisits(long[] visits) {
+        if (visits.length > this.stateVisits.length) {
+            long[] bigger = new long[visits.length];
+            System.arraycopy(this.stateVisits, 0, bigger, 0, this.stateVisits.length);
+            this.stateVisits = bigger;
+        }
+        for (int i = 0; i < visits.length; i++) {
+            this.stateVisits[i] += visits[i];
+        }
+    }
+
+    /**
+     * Get the index in the histogram of a shift.
+     *
+     * @param shift The length of the shift.
+     * @return      The index (log2 of the length).
+     */
+    public static int bucket(int shift) {
+        return 31 - Integer.numberOfLeadingZeros(Math.max(shift, 1));
+    }
+
+    @Override
+    public synchronized long getSearches() {
+        return this.searches;
+    }
+
+    @Override
+    public synchronized long getCharsScanned() {
+        return this.charsScanned;
+    }
+
+    @Override
+    public synchronized long getNanos() {
+        return this.nanos;
+    }
+
+    @Override
+    public synchronized double getCharsPerSecond() {
+        return this.nanos == 0 ? 0 : this.charsScanned * 1e9 / this.nanos;
+    }
+
+    @Override
+    public synchronized long getComparisons() {
+        return this.comparisons;
+    }
+
+    @Override
+    public synchronized long getVerifications() {
+        return this.verifications;
+    }
+
+    @Override
+    public synchronized long getSpuriousHits() {
+        return this.spuriousHits;
+    }
+
+    @Override
+    public synchronized long getShifts() {
+        return this.shifts;
+    }
+
+    @Override
+    public synchronized long getCharTableShifts() {
+        return this.charTableShifts;
+    }
+
+    @Override
+    public synchronized long getSuffixTableShifts() {
+        return this.suffixTableShifts;
+    }
+
+    @Override
+    public synchronized long[] getShiftHistogram() {
+        return this.shiftHistogram.clone();
+    }
+
+    @Override
+    public synchronized long[] getStateVisits() {
+        return this.stateVisits.clone();
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.searches = 0;
+        this.charsScanned = 0;
+        this.nanos = 0;
+        this.comparisons = 0;
+        this.verifications = 0;
+        this.spuriousHits = 0;
+        this.shifts = 0;
+        this.charTableShifts = 0;
+        this.suffixTableShifts = 0;
+        this.shiftHistogram = new long[32];
+        this.stateVisits = new long[0];
+    }
+
+    /**
+     * Print the counters of all the search patterns used (on the error output, so the
+     * output of the search is not modified).
+     */
+    public static void printAll() {
+        synchronized (ALL) {
+            for (SearchStats stats : ALL.values()) {
+                System.err.println(stats);
+            }
+        }
+    }
+
+    /**
+     * Method to print the counters.
+     *
+     * Only the non-empty parts of the histogram and of the visits are printed.
+     *
+     * @return The string representation.
+     */
+    @Override
+    public synchronized String toString() {
+        String s = this.engine + " : " + this.searches + " searches, " + this.charsScanned + " chars, "
+                + String.format("%.0f", this.getCharsPerSecond()) + " chars/s, "
+                + this.comparisons + " comparisons, " + this.verifications + " verifications, "
+                + this.spuriousHits + " spurious hits";
+        if (this.shifts > 0) {
+            s += "\n    shifts : " + this.shifts + " (char table " + this.charTableShifts
+                    + ", suffix table " + this.suffixTableShifts + ")";
+            for (int i = 0; i < this.shiftHistogram.length; i++) {
+                if (this.shiftHistogram[i] > 0) {
+                    s += " [" + (1 << i) + "+]=" + this.shiftHistogram[i];
+                }
+            }
+        }
+        if (this.stateVisits.length > 0) {
+            s += "\n    state visits :";
+            for (int i = 0; i < this.stateVisits.length; i++) {
+                s += " " + i + "=" + this.stateVisits[i];
+            }
+        }
+        return s;
+    }
+}
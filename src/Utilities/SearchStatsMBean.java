@@ -0,0 +1,37 @@
+package Utilities;
+
+/**
+ * Management interface of SearchStats (JMX).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public interface SearchStatsMBean {
+
+    long getSearches();
+
+    long getCharsScanned();
+
+    long getNanos();
+
+    double getCharsPerSecond();
+
+    long getComparisons();
+
+    long getVerifications();
+
+    long getSpuriousHits();
+
+    long getShifts();
+
+    long getCharTableShifts();
+
+    long getSuffixTableShifts();
+
+    long[] getShiftHistogram();
+
+    long[] getStateVisits();
+
+    void reset();
+}
@@ -0,0 +1,181 @@
+package Utilities;
+
+import SearchPatterns.Cursor;
+import SearchPatterns.MatchListener;
+import SearchPatterns.Searcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+
+/**
+ * Class StreamSearch.
+ *
+ * Search a pattern into a stream (standard input, pipe, socket...) without loading it.
+ *
+ * The bytes are read in a buffer of fixed size, decoded into characters (with the default charset,
+ * like Toolbox.read) and given to the cursor of the search pattern. The positions of appearances are
+ * sent to the listener as soon as they are found, so the search can be used in a pipeline.
+ *
+ * The positions are positions of characters in the stream (the line endings are not modified).
+ *
+ * A LineIndex can be built during the same read, to get the line and the column of the positions.
+ * Since the stream is not kept, the lines before the last occurrence found (and before the characters
+ * which can still be part of an occurrence) are forgotten.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class StreamSearch {
+
+    public static final int BUFFER_SIZE = 64 * 1024;    // Size of the buffers (bytes and characters).
+    // Characters kept in the line index before the end of the text read (more than kept by the cursors).
+    public static final int LINE_LOOKBACK = 4 * 1024 * 1024;
+
+    /**
+     * Search a pattern into an input stream.
+     *
+     * @param searcher  The search pattern.
+     * @param in        The stream to look into.
+     * @param listener  The listener of the positions of appearances.
+     * @return          The number of occurrences found.
+     * @throws IOException If the stream can not be read.
+     */
+    public static long search(Searcher searcher, InputStream in, MatchListener listener) throws IOException {
+        return search(searcher, Channels.newChannel(in), listener);
+    }
+
+    /**
+     * Search a pattern into an input stream and put the positions of appearances into an array.
+     *
+     * @param searcher  The search pattern.
+     * @param in        The stream to look into.
+     * @return          An array containing the positions of appearances.
+     * @throws IOException If the stream can not be read.
+     */
+    public static ArrayList<Integer> searchAll(Searcher searcher, InputStream in) throws IOException {
+        final ArrayList<Integer> output = new ArrayList<Integer>();
+        try {
+            search(searcher, in, new MatchListener() {
+                @Override
+                public void match(long position) {
+                    output.add((int) position);
+                }
+            });
+        }
+        finally {
+            in.close();
+        }
+        return output;
+    }
+
+    /**
+     * Search a pattern into a channel.
+     *
+     * @param searcher  The search pattern.
+     * @param channel   The channel to look into.
+     * @param listener  The listener of the positions of appearances.
+     * @return          The number of occurrences found.
+     * @throws IOException If the channel can not be read.
+     */
+    public static long search(Searcher searcher, ReadableByteChannel channel, MatchListener listener)
+            throws IOException {
+        return search(searcher.cursor(), channel, listener);
+    }
+
+    /**
+     * Continue a search into a channel with an existing cursor.
+     *
+     * The end of the text is signaled to the cursor when the channel is empty.
+     *
+     * @param cursor    The cursor of the search.
+     * @param channel   The channel to look into.
+     * @param listener  The listener of the positions of appearances.
+     * @return          The number of occurrences found.
+     * @throws IOException If the channel can not be read.
+     */
+    public static long search(Cursor cursor, ReadableByteChannel channel, MatchListener listener)
+            throws IOException {
+        return search(cursor, channel, listener, null);
+    }
+
+    /**
+     * Continue a search into a channel with an existing cursor, and index the lines read.
+     *
+     * Each part read is given to the index before the cursor, so the line of a position sent to the
+     * listener is always known by the index.
+     *
+     * @param cursor    The cursor of the search.
+     * @param channel   The channel to look into.
+     * @param listener  The listener of the positions of appearances.
+     * @param index     The index of the lines (null if not needed).
+     * @return          The number of occurrences found.
+     * @throws IOException If the channel can not be read.
+     */
+    public static long search(Cursor cursor, ReadableByteChannel channel, MatchListener listener, LineIndex index)
+            throws IOException {
+        CountingListener counter = new CountingListener(listener);
+        CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+        boolean end = false;
+        while (!end) {
+            end = channel.read(bytes) == -1;
+            bytes.flip();
+            // Decode all the bytes read (the last bytes of a character cut in two are kept for the next read).
+            while (true) {
+                boolean full = decoder.decode(bytes, chars, end).isOverflow();
+                if (end && !full) {
+                    full = decoder.flush(chars).isOverflow();
+                }
+                chars.flip();
+                if (index != null) {
+                    index.add(chars);
+                }
+                cursor.feed(chars, counter);
+                if (index != null) {
+                    // The next positions are after the last one found, and not far before the end.
+                    index.trim(Math.max(counter.last, cursor.position() - LINE_LOOKBACK));
+                }
+                chars.clear();
+                if (!full) {
+                    break;
+                }
+            }
+            bytes.compact();
+        }
+        cursor.end(counter);
+        return counter.count;
+    }
+
+    /**
+     * Listener which counts the occurrences before sending them to another listener.
+     */
+    private static class CountingListener implements MatchListener {
+        private MatchListener listener;
+        private long count = 0;
+        private long last = 0;      // Last position found.
+
+        private CountingListener(MatchListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void match(long position) {
+            this.count++;
+            this.last = position;
+            this.listener.match(position);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package Utilities;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Class TextCache.
+ *
+ * Cache of the texts loaded from files, shared by all the search patterns (see Toolbox.load),
+ * so a file searched many times is only read once.
+ *
+ *      - A text is found with the path of its file, and is only used if the size and the date of
+ *        modification of the file have not changed (else the file is read again).
+ *        A file modified less than a second before it is read is not kept : it could be modified again
+ *        with the same size and the same date (the date of the file system is not precise enough).
+ *        A text is not kept either if its file could not be read up to its end (a truncated gzip...).
+ *
+ *      - The size of the cache is bounded (in bytes, 2 per character). When it is full, the texts
+ *        used the least recently are removed (LRU). A text bigger than the cache is not kept.
+ *
+ *      - The texts can be kept out of the heap (direct buffers), so a big cache doesn't make the
+ *        garbage collector slower.
+ *
+ *      - The files are read without holding the lock of the cache, so different files are read at the same
+ *        time. The threads which need a file already being read wait for it, it is only read once.
+ *
+ * Options (system properties) :
+ *
+ *      -Dsearchpatterns.cache.bytes=N      Size of the cache in bytes (default : 1/8 of the heap, 0 to disable).
+ *      -Dsearchpatterns.cache.offheap=true Keep the texts out of the heap.
+ *
+ * The numbers of hits and misses are registered in JMX as SearchPatterns:type=TextCache.
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class TextCache implements TextCacheMBean {
+
+    private static final long RACY_DELAY = 1000;  // Time (ms) after a modification before a text can be kept.
+
+    private static final TextCache INSTANCE = new TextCache(
+            Long.getLong("searchpatterns.cache.bytes", Runtime.getRuntime().maxMemory() / 8),
+            Boolean.getBoolean("searchpatterns.cache.offheap"));
+
+    private long maxBytes;
+    private boolean offHeap;
+    private long bytes = 0;         // Size of the texts kept.
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;     // Texts removed to make room.
+    private long invalidations = 0; // Texts removed because the file has changed.
+    // Texts by path, the least recently used first.
+    private LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    // Files being read, by path, size and date of modification (removed once read).
+    private HashMap<String, FutureTask<Entry>> loading = new HashMap<String, FutureTask<Entry>>();
+
+    /**
+     * Constructor.
+     *
+     * @param maxBytes  Size of the cache in bytes.
+     * @param offHeap   If the texts are kept out of the heap.
+     */
+    public TextCache(long maxBytes, boolean offHeap) {
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Get the cache shared by the search patterns (registered in JMX the first time).
+     *
+     * @return The cache.
+     */
+    public static TextCache getInstance() {
+        return INSTANCE;
+    }
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE,
+                    new ObjectName("SearchPatterns:type=TextCache"));
+        }
+        catch (JMException e) {
+            // The counters are still available without JMX.
+        }
+    }
+
+    /**
+     * Get the text of a file, from the cache or read with Toolbox.read.
+     *
+     * The text returned must not be modified.
+     *
+     * @param filename  The file to load.
+     * @return          The text of the file.
+     */
+    public CharSequence get(final String filename) {
+        File file = new File(filename);
+        if (!file.isFile()) {
+            // Toolbox.read prints the error.
+            return Toolbox.read(filename);
+        }
+        final String path = file.getAbsolutePath();
+        final long size = file.length();
+        final long modified = file.lastModified();
+        String key = path + "|" + size + "|" + modified;
+
+        FutureTask<Entry> task;
+        boolean reader = false;     // If this thread reads the file.
+        synchronized (this) {
+            Entry entry = this.entries.get(path);
+            if (entry != null) {
+                if (entry.size == size && entry.modified == modified) {
+                    this.hits++;
+                    return entry.text();
+                }
+                this.remove(path);
+                this.invalidations++;
+            }
+            this.misses++;
+            task = this.loading.get(key);
+            if (task == null) {
+                task = new FutureTask<Entry>(new Callable<Entry>() {
+                    @Override
+                    public Entry call() {
+                        long start = System.currentTimeMillis();
+                        StringBuffer read = new StringBuffer();
+                        boolean complete = Toolbox.read(filename, read, null);
+                        // The text is only copied if it is kept (a direct buffer has at most 2^31 bytes).
+                        long bytes = 2L * read.length();
+                        boolean kept = complete && bytes <= maxBytes && modified < start - RACY_DELAY
+                                && (!offHeap || bytes <= Integer.MAX_VALUE);
+                        return new Entry(read, size, modified, kept, offHeap);
+                    }
+                });
+                this.loading.put(key, task);
+                reader = true;
+            }
+        }
+
+        if (reader) {
+            try {
+                // The file is read out of the lock.
+                task.run();
+            }
+            finally {
+                synchronized (this) {
+                    this.loading.remove(key);
+                    this.put(path, task);
+                }
+            }
+        }
+        try {
+            return task.get().text();
+        }
+        catch (InterruptedException e) {
+            // Read by this thread instead of waiting.
+            Thread.currentThread().interrupt();
+            return Toolbox.read(filename);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to read " + filename, e.getCause());
+        }
+    }
+
+    /**
+     * Keep a text which has been read (if it can be kept), and remove the texts used the least recently.
+     *
+     * @param path  The absolute path of its file.
+     * @param task  The reading of the file (done).
+     */
+    private void put(String path, FutureTask<Entry> task) {
+        Entry entry;
+        try {
+            entry = task.get();
+        }
+        catch (InterruptedException e) {
+            return;     // Not possible, the task is done.
+        }
+        catch (ExecutionException e) {
+            return;     // Nothing to keep.
+        }
+        if (!entry.kept) {
+            return;
+        }
+        this.remove(path);
+        this.entries.put(path, entry);
+        this.bytes += entry.bytes();
+        Iterator<Map.Entry<String, Entry>> it = this.entries.entrySet().iterator();
+        while (this.bytes > this.maxBytes && it.hasNext()) {
+            Entry old = it.next().getValue();
+            it.remove();
+            this.bytes -= old.bytes();
+            this.evictions++;
+        }
+    }
+
+    /**
+     * Remove a text.
+     *
+     * @param path The absolute path of its file.
+     */
+    private void remove(String path) {
+        Entry entry = this.entries.remove(path);
+        if (entry != null) {
+            this.bytes -= entry.bytes();
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.entries.clear();
+        this.bytes = 0;
+    }
+
+    @Override
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    @Override
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    @Override
+    public synchronized long getInvalidations() {
+        return this.invalidations;
+    }
+
+    @Override
+    public synchronized long getBytes() {
+        return this.bytes;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    @Override
+    public synchronized int getTexts() {
+        return this.entries.size();
+    }
+
+    /**
+     * Method to print the counters.
+     *
+     * @return The string representation.
+     */
+    @Override
+    public synchronized String toString() {
+        return "TextCache : " + this.entries.size() + " texts, " + this.bytes + "/" + this.maxBytes + " bytes"
+                + (this.offHeap ? " (off-heap)" : "") + ", " + this.hits + " hits, " + this.misses + " misses, "
+                + this.evictions + " evictions, " + this.invalidations + " invalidations";
+    }
+
+    /**
+     * Text of a file, with the size and the date of modification of the file when it was read.
+     */
+    private static class Entry {
+        private CharSequence heap;  // Text in the heap : a copy if kept, else the text read (null if out of the heap).
+        private CharBuffer direct;  // Text out of the heap (null if in the heap).
+        private int length;
+        private long size;
+        private long modified;
+        private boolean kept;       // If the text is kept in the cache.
+
+        private Entry(CharSequence text, long size, long modified, boolean kept, boolean offHeap) {
+            this.length = text.length();
+            this.size = size;
+            this.modified = modified;
+            this.kept = kept;
+            if (!kept) {
+                this.heap = text;
+            }
+            else if (offHeap) {
+                CharBuffer buffer = ByteBuffer.allocateDirect((int) this.bytes()).asCharBuffer();
+                for (int i = 0; i < this.length; i++) {
+                    buffer.put(text.charAt(i));
+                }
+                buffer.flip();
+                this.direct = buffer.asReadOnlyBuffer();
+            }
+            else {
+                this.heap = text.toString();
+            }
+        }
+
+        /**
+         * @return The text (a new view of the buffer if out of the heap, its position is not shared).
+         */
+        private CharSequence text() {
+            return this.heap != null ? this.heap : this.direct.duplicate();
+        }
+
+        /**
+         * @return The size of the text in bytes.
+         */
+        private long bytes() {
+            return 2L * this.length;
+        }
+    }
+
+    public static void main(String[] args) {
+        TextCache cache = new TextCache(1 << 20, true);
+        for (int i = 0; i < 3; i++) {
+            System.out.println(cache.get("TestFile.txt").length());
+        }
+        System.out.println(cache);
+    }
+}
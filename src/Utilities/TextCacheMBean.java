@@ -0,0 +1,27 @@
+package Utilities;
+
+/**
+ * Management interface of TextCache (JMX).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public interface TextCacheMBean {
+
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    long getInvalidations();
+
+    long getBytes();
+
+    long getMaxBytes();
+
+    int getTexts();
+
+    void clear();
+}
@@ -1,9 +1,15 @@
 package Utilities;
 
-import java.io.BufferedReader;
+import SearchPatterns.MatchListener;
+import SearchPatterns.Searcher;
+
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 
 /**
@@ -14,10 +20,14 @@ import java.util.ArrayList;
  *
  *  Contains :
  *
- *      - A function used by all SearchPatterns to load the file into a string.
+ *      - A function used by all SearchPatterns to load the file into a string (with a cache).
  *
  *      - A function to print the output of a search as desired for the Main programme.
  *
+ *      - A function to search a stream and print the positions as soon as they are found.
+ *
+ *      - A function to print the occurrences with their line and column (and some lines of context).
+ *
  *  Even if it's not the cleaner solution, I think it's better to create some static method
  *  than having the same code x times.
  *
@@ -31,22 +41,57 @@ public class Toolbox {
      * Read a file and put it in a StringBuffer.
      * This method is used by every SearchPattern class to load the file.
      * Since this is a static method, it can be used without a class instance.
+     * Compressed files (gzip) are decompressed (see Decompression).
+     *
+     * The text is not modified (the line endings are kept), so the positions found are
+     * the positions of the characters in the file.
      *
      * @param filename  The filename to load.
      * @return          The StringBuffer.
      */
     public static StringBuffer read(String filename) {
-        // Load the file into a StringBuffer.
+        return read(filename, null);
+    }
+
+    /**
+     * Read a file, put it in a StringBuffer and index its lines during the same read.
+     *
+     * @param filename  The filename to load.
+     * @param index     The index of the lines to fill (null if not needed).
+     * @return          The StringBuffer.
+     */
+    public static StringBuffer read(String filename, LineIndex index) {
         StringBuffer text = new StringBuffer();
-        try {
-            BufferedReader br = new BufferedReader(new FileReader(filename));
-            String line = br.readLine();
+        read(filename, text, index);
+        return text;
+    }
 
-            while (line != null) {
-                text.append(line);
-                text.append("\n");
-                line = br.readLine();
+    /**
+     * Read a file at the end of a StringBuffer, and index its lines during the same read.
+     * If the file can not be read up to its end, the error is printed and the characters read before it are kept.
+     *
+     * @param filename  The filename to load.
+     * @param text      The StringBuffer to fill.
+     * @param index     The index of the lines to fill (null if not needed).
+     * @return          True if the whole file has been read.
+     */
+    static boolean read(String filename, StringBuffer text, LineIndex index) {
+        try {
+            Reader reader = new InputStreamReader(Decompression.open(filename));
+            try {
+                char[] buffer = new char[StreamSearch.BUFFER_SIZE];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    text.append(buffer, 0, read);
+                    if (index != null) {
+                        index.add(CharBuffer.wrap(buffer, 0, read));
+                    }
+                }
             }
+            finally {
+                reader.close();
+            }
+            return true;
         }
         catch (FileNotFoundException e) {
             System.out.println("File not found.");
@@ -54,7 +99,18 @@ public class Toolbox {
         catch (IOException e) {
             e.printStackTrace();
         }
-        return text;
+        return false;
+    }
+
+    /**
+     * Load a file with the cache shared by all the SearchPatterns (see TextCache).
+     * A file already loaded is not read again, if it has not changed.
+     *
+     * @param filename  The filename to load.
+     * @return          The text, which must not be modified.
+     */
+    public static CharSequence load(String filename) {
+        return TextCache.getInstance().get(filename);
     }
 
     /**
@@ -73,6 +129,119 @@ public class Toolbox {
         }
     }
 
+    /**
+     * Search a pattern into a stream and print the positions of occurrences as soon as they are found.
+     *
+     * Since the number of occurrences is only known at the end, it is printed after the positions.
+     *
+     * @param searcher  The search pattern.
+     * @param in        The stream to look into.
+     * @throws IOException If the stream can not be read.
+     */
+    public static void printStream(Searcher searcher, InputStream in) throws IOException {
+        long count = StreamSearch.search(searcher, in, new MatchListener() {
+            @Override
+            public void match(long position) {
+                // Print the position and flush, so it is visible in a pipeline.
+                System.out.print(position + " ");
+                System.out.flush();
+            }
+        });
+        System.out.println();
+        // Print the number of occurrences found.
+        System.out.println(count);
+    }
+
+    /**
+     * Search a pattern into a stream and print the line and the column of the occurrences
+     * as soon as they are found (line:column, one occurrence per line).
+     *
+     * The lines are counted during the search, the text is not kept (so there is no context).
+     *
+     * @param searcher  The search pattern.
+     * @param in        The stream to look into.
+     * @throws IOException If the stream can not be read.
+     */
+    public static void printStreamLines(Searcher searcher, InputStream in) throws IOException {
+        final LineIndex index = new LineIndex();
+        StreamSearch.search(searcher.cursor(), Channels.newChannel(in), new MatchListener() {
+            @Override
+            public void match(long position) {
+                System.out.println(index.line(position) + ":" + index.column(position));
+                System.out.flush();
+            }
+        }, index);
+    }
+
+    /**
+     * Print the occurrences like grep : line:columns:text for each line with an occurrence
+     * (the columns of the occurrences of the same line are separated by ',').
+     *
+     * With some lines of context, the lines before and after are printed as line-text,
+     * and the groups of lines which are not following each other are separated by "--".
+     *
+     * @param output    Array of Integer containing positions of pattern's occurrences (in order).
+     * @param text      The text searched.
+     * @param index     The index of the lines of the text.
+     * @param context   The number of lines of context (0 for none).
+     */
+    public static void printLines(ArrayList<Integer> output, CharSequence text, LineIndex index, int context) {
+        long printed = 0;   // Last line printed.
+        long after = 0;     // Last line of context to print after the last occurrence.
+        int i = 0;
+        while (i < output.size()) {
+            long line = index.line(output.get(i));
+            // Columns of all the occurrences of the line.
+            StringBuilder columns = new StringBuilder();
+            while (i < output.size() && index.line(output.get(i)) == line) {
+                if (columns.length() > 0) {
+                    columns.append(',');
+                }
+                columns.append(index.column(output.get(i)));
+                i++;
+            }
+            // Context after the previous line (up to this one).
+            while (printed < Math.min(after, line - 1)) {
+                printed++;
+                System.out.println(printed + "-" + lineText(text, index, printed));
+            }
+            // Context before this line.
+            long from = Math.max(printed + 1, line - context);
+            if (context > 0 && printed > 0 && from > printed + 1) {
+                System.out.println("--");
+            }
+            for (long l = from; l < line; l++) {
+                System.out.println(l + "-" + lineText(text, index, l));
+            }
+            System.out.println(line + ":" + columns + ":" + lineText(text, index, line));
+            printed = line;
+            after = line + context;
+        }
+        // Context after the last occurrence.
+        after = Math.min(after, index.lineCount());
+        while (printed < after) {
+            printed++;
+            System.out.println(printed + "-" + lineText(text, index, printed));
+        }
+    }
+
+    /**
+     * Get the text of a line (without the line ending).
+     *
+     * @param text  The text.
+     * @param index The index of the lines of the text.
+     * @param line  The line (starting at 1).
+     * @return      The characters of the line.
+     */
+    private static CharSequence lineText(CharSequence text, LineIndex index, long line) {
+        int start = (int) index.lineStart(line);
+        int end = (int) index.lineEnd(line);
+        if (end > start && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return text.subSequence(start, end);
+    }
+
     /**
      * Function to print all the position of the pattern in the file using java methods.
      *
@@ -0,0 +1,162 @@
+package Utilities;
+
+import SearchPatterns.Cursor;
+import SearchPatterns.Engines;
+import SearchPatterns.MatchListener;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Class Worker.
+ *
+ * Programme run in another process by the Coordinator : search a pattern into a part of a file
+ * (a range of bytes) and send the results on its standard output.
+ *
+ *      java Utilities.Worker <algo> <file> <start> <own end> <end>
+ *
+ * The pattern is read on the standard input (DataOutputStream.writeUTF), since the arguments of a process
+ * are encoded with the charset of the system, which may not have all its characters.
+ * The bytes from start to own end are the part of the worker. The bytes from own end to end are
+ * the beginning of the next part (overlap), read only to find the occurrences which start in the part
+ * and end after it. With an end of -1, the file is read until its end (the file can be compressed).
+ * The positions are relative to the start of the part : the worker doesn't know the number of
+ * characters before its part.
+ *
+ * The results are written in binary (DataOutputStream) :
+ *
+ *      'M' position    An occurrence (long), only if it starts in the part.
+ *      'C' characters  The number of characters of the part (long), without the overlap.
+ *      'E'             The end, written when the search is complete.
+ *
+ * If the output doesn't end with 'E', the worker has failed (see Coordinator).
+ *
+ * @author  Axel Fahy
+ * @date    19.10.2026
+ * @version 0.1
+ */
+public class Worker {
+
+    public static final int MATCH = 'M';
+    public static final int CHARACTERS = 'C';
+    public static final int END = 'E';
+
+    /**
+     * Search a part of a file.
+     *
+     * @param algo      The number of the algorithm.
+     * @param pattern   The pattern.
+     * @param filename  The file to look into.
+     * @param start     The first byte of the part.
+     * @param ownEnd    The byte after the part (-1 until the end of the file).
+     * @param end       The byte after the overlap (-1 until the end of the file).
+     * @param out       The output of the results.
+     * @throws IOException If the file can not be read or the results can not be written.
+     */
+    public static void search(int algo, String pattern, String filename, long start, long ownEnd, long end,
+                              final DataOutputStream out) throws IOException {
+        ReadableByteChannel channel;
+        if (end == -1) {
+            channel = Channels.newChannel(Decompression.open(filename));
+        }
+        else {
+            FileInputStream in = new FileInputStream(filename);
+            channel = in.getChannel().position(start);
+        }
+        try {
+            Cursor cursor = Engines.create(algo, pattern).cursor();
+            CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer bytes = ByteBuffer.allocate(StreamSearch.BUFFER_SIZE);
+            CharBuffer chars = CharBuffer.allocate(StreamSearch.BUFFER_SIZE);
+            final long[] own = {-1};    // Characters of the part (-1 until the own end is read).
+            MatchListener listener = new MatchListener() {
+                @Override
+                public void match(long position) {
+                    if (own[0] == -1 || position < own[0]) {
+                        try {
+                            out.writeByte(MATCH);
+                            out.writeLong(position);
+                        }
+                        catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                }
+            };
+
+            long position = start;
+            boolean eof = false;
+            while (!eof) {
+                // Stop the read at the own end, to count the characters of the part.
+                long limit = own[0] == -1 && ownEnd != -1 ? ownEnd : end;
+                if (limit != -1) {
+                    bytes.limit((int) Math.min(bytes.capacity(), bytes.position() + limit - position));
+                }
+                int count = bytes.remaining() == 0 ? 0 : channel.read(bytes);
+                position += Math.max(count, 0);
+                eof = count == -1 || (limit == end && position == end);
+                bytes.flip();
+                while (true) {
+                    boolean full = decoder.decode(bytes, chars, eof).isOverflow();
+                    if (eof && !full) {
+                        full = decoder.flush(chars).isOverflow();
+                    }
+                    chars.flip();
+                    cursor.feed(chars, listener);
+                    chars.clear();
+                    if (!full) {
+                        break;
+                    }
+                }
+                if (own[0] == -1 && ownEnd != -1 && position == ownEnd) {
+                    // The own end is the start of a character : bytes not decoded yet are an invalid
+                    // character, replaced as when the next byte is read.
+                    if (bytes.hasRemaining()) {
+                        decoder.decode(bytes, chars, true);
+                        decoder.flush(chars);
+                        chars.flip();
+                        cursor.feed(chars, listener);
+                        chars.clear();
+                        decoder.reset();
+                    }
+                    own[0] = cursor.position();
+                }
+                bytes.compact();
+            }
+            cursor.end(listener);
+            if (own[0] == -1) {
+                own[0] = cursor.position();
+            }
+            out.writeByte(CHARACTERS);
+            out.writeLong(own[0]);
+            out.writeByte(END);
+            out.flush();
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.err.println("usage: java Utilities.Worker <algo> <fichier_texte> <debut> <fin_partie> <fin> < motif");
+            System.exit(1);
+        }
+        String pattern = new DataInputStream(System.in).readUTF();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(System.out, StreamSearch.BUFFER_SIZE));
+        search(Integer.parseInt(args[0]), pattern, args[1],
+                Long.parseLong(args[2]), Long.parseLong(args[3]), Long.parseLong(args[4]), out);
+    }
+}